@@ -0,0 +1,93 @@
+package foodtruck.geo;
+
+/**
+ * Great-circle distance calculations.
+ *
+ * <p>Distances are computed with the haversine formula on a sphere with the same mean earth radius that
+ * simplelatlng's {@code LatLngTool} uses, so results agree with {@code LatLngTool.distance(..., LengthUnit.MILE)} to
+ * within {@link #TOLERANCE_MILES} (the difference comes from simplelatlng rounding coordinates to micro-degrees).
+ */
+public final class GeoMath {
+
+  /**
+   * simplelatlng's mean earth radius of 6371.009 km, in miles.
+   */
+  public static final double EARTH_RADIUS_MILES = 6371.009 * 0.621371192;
+
+  /**
+   * The maximum expected difference between {@link #distanceMiles} and simplelatlng's distance.
+   */
+  public static final double TOLERANCE_MILES = 0.0001;
+
+  // the equirectangular approximation is only trusted for points less than a degree apart away from the poles, and
+  // only when it's clearly inside or outside the requested distance
+  private static final double APPROXIMATION_MAX_RADIANS = Math.toRadians(1);
+  private static final double APPROXIMATION_MAX_COS_LATITUDE = Math.cos(Math.toRadians(70));
+  private static final double APPROXIMATION_MARGIN = 0.01;
+
+  private GeoMath() {
+  }
+
+  /**
+   * Returns the great-circle distance between the points in miles.
+   */
+  public static double distanceMiles(GeoPoint a, GeoPoint b) {
+    return EARTH_RADIUS_MILES * centralAngle(a, b);
+  }
+
+  /**
+   * Returns true if the great-circle distance between the points is strictly less than the specified number of miles.
+   * Points that are clearly too far apart in latitude are rejected without any trigonometry, nearby points that are
+   * clearly inside or outside the distance are decided with an equirectangular approximation, and only borderline
+   * cases fall back to the exact haversine distance.
+   */
+  public static boolean withinMiles(GeoPoint a, GeoPoint b, double miles) {
+    double dLat = Math.abs(a.latRadians - b.latRadians);
+    // the distance along a meridian is a lower bound on the great-circle distance
+    if (dLat * EARTH_RADIUS_MILES >= miles) {
+      return false;
+    }
+    double dLng = longitudeDelta(a, b);
+    if (dLat < APPROXIMATION_MAX_RADIANS && dLng < APPROXIMATION_MAX_RADIANS &&
+        a.cosLatitude > APPROXIMATION_MAX_COS_LATITUDE && b.cosLatitude > APPROXIMATION_MAX_COS_LATITUDE) {
+      double x = dLng * (a.cosLatitude + b.cosLatitude) * 0.5;
+      double approximate = EARTH_RADIUS_MILES * Math.sqrt(dLat * dLat + x * x);
+      if (approximate < miles * (1 - APPROXIMATION_MARGIN)) {
+        return true;
+      } else if (approximate > miles * (1 + APPROXIMATION_MARGIN)) {
+        return false;
+      }
+    }
+    return distanceMiles(a, b) < miles;
+  }
+
+  /**
+   * Returns the great-circle distance in miles between a point and coordinates given in radians, without needing a
+   * {@link GeoPoint} for the second one.
+   */
+  static double distanceMiles(GeoPoint a, double latRadians, double lngRadians) {
+    return EARTH_RADIUS_MILES * centralAngle(a.latRadians, a.lngRadians, a.cosLatitude, latRadians, lngRadians,
+        Math.cos(latRadians));
+  }
+
+  private static double centralAngle(GeoPoint a, GeoPoint b) {
+    return centralAngle(a.latRadians, a.lngRadians, a.cosLatitude, b.latRadians, b.lngRadians, b.cosLatitude);
+  }
+
+  private static double centralAngle(double lat1, double lng1, double cosLat1, double lat2, double lng2,
+      double cosLat2) {
+    double sinLat = Math.sin((lat1 - lat2) * 0.5);
+    double sinLng = Math.sin(longitudeDelta(lng1, lng2) * 0.5);
+    double h = sinLat * sinLat + cosLat1 * cosLat2 * sinLng * sinLng;
+    return 2 * Math.atan2(Math.sqrt(h), Math.sqrt(1 - h));
+  }
+
+  private static double longitudeDelta(GeoPoint a, GeoPoint b) {
+    return longitudeDelta(a.lngRadians, b.lngRadians);
+  }
+
+  private static double longitudeDelta(double lng1, double lng2) {
+    double dLng = Math.abs(lng1 - lng2);
+    return dLng > Math.PI ? 2 * Math.PI - dLng : dLng;
+  }
+}
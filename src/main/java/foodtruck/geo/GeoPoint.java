@@ -0,0 +1,40 @@
+package foodtruck.geo;
+
+/**
+ * A latitude/longitude with its radians and cosine of latitude precomputed, so distance checks between points don't
+ * need to repeat that trigonometry.
+ */
+public final class GeoPoint {
+  private final double latitude;
+  private final double longitude;
+  final double latRadians;
+  final double lngRadians;
+  final double cosLatitude;
+
+  private GeoPoint(double latitude, double longitude) {
+    this.latitude = latitude;
+    this.longitude = longitude;
+    this.latRadians = Math.toRadians(latitude);
+    this.lngRadians = Math.toRadians(longitude);
+    this.cosLatitude = Math.cos(latRadians);
+  }
+
+  public static GeoPoint of(double latitude, double longitude) {
+    return new GeoPoint(latitude, longitude);
+  }
+
+  public double getLatitude() {
+    return latitude;
+  }
+
+  public double getLongitude() {
+    return longitude;
+  }
+
+  /**
+   * Returns true if this point was computed for the specified coordinates.
+   */
+  public boolean isAt(double latitude, double longitude) {
+    return this.latitude == latitude && this.longitude == longitude;
+  }
+}
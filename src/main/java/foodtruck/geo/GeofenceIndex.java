@@ -0,0 +1,240 @@
+package foodtruck.geo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongConsumer;
+
+import com.google.common.base.Equivalence;
+
+import foodtruck.models.Location;
+
+/**
+ * Answers "which geofences contain this point" for locations that have a {@link Location#getRadius() radius} or a
+ * {@link Location#getRadiateTo() radiateTo} distance.  A location's fence is the circle around it whose radius is the
+ * larger of the two (both are in miles), and a point is inside it under the same rule as
+ * {@link Location#containedWithRadiusOf}: it's strictly closer than the radius.
+ *
+ * <p>Each fence is registered in every cell of a latitude/longitude grid that its bounding box overlaps, so a lookup
+ * only checks the fences registered in the point's cell.  Fences that would cover too many cells go in a second grid
+ * whose cells are 16 times as big, and only fences too big for that one (or reaching a pole) are
+ * kept on a short list that every lookup checks.  Longitude cells are counted from the antimeridian eastwards and wrap
+ * around it, the last one being narrower when the cell size doesn't divide 360 degrees.  Fences can be added and
+ * removed while lookups are running; each cell is a copy-on-write array, so lookups never lock.
+ */
+public class GeofenceIndex {
+
+  private static final double MILES_PER_DEGREE = GeoMath.EARTH_RADIUS_MILES * Math.toRadians(1);
+  private static final int MAX_CELLS_PER_FENCE = 64;
+  private static final int COARSE_FACTOR = 16;
+  private static final Fence[] NO_FENCES = new Fence[0];
+
+  private final Grid fine;
+  private final Grid coarse;
+  private volatile Fence[] oversized = NO_FENCES;
+  // guarded by this
+  private final Map<Object, Fence> fences = new HashMap<>();
+
+  public GeofenceIndex() {
+    this(0.5);
+  }
+
+  /**
+   * @param cellMiles the height of a grid cell in miles; about the size of a typical fence works well
+   */
+  public GeofenceIndex(double cellMiles) {
+    this.fine = new Grid(cellMiles);
+    this.coarse = new Grid(cellMiles * COARSE_FACTOR);
+  }
+
+  public static GeofenceIndex of(Collection<Location> locations) {
+    var index = new GeofenceIndex();
+    locations.forEach(index::add);
+    return index;
+  }
+
+  /**
+   * Adds the location's geofence, replacing any fence previously added for the same location (matched by key if it
+   * has one, otherwise by instance).  Locations without a radius or radiateTo distance are ignored.
+   */
+  public synchronized void add(Location location) {
+    remove(location);
+    double miles = radiusOf(location);
+    if (miles <= 0) {
+      return;
+    }
+    var fence = new Fence(location, miles);
+    fences.put(identity(location), fence);
+    if (!fine.add(fence) && !coarse.add(fence)) {
+      oversized = concat(oversized, new Fence[] {fence});
+    }
+  }
+
+  /**
+   * Removes the geofence added for the location (matched by key if it has one, otherwise by instance).
+   */
+  public synchronized void remove(Location location) {
+    var fence = fences.remove(identity(location));
+    if (fence == null) {
+      return;
+    }
+    if (!fine.remove(fence) && !coarse.remove(fence)) {
+      oversized = Objects.requireNonNullElse(without(oversized, fence), NO_FENCES);
+    }
+  }
+
+  public synchronized int size() {
+    return fences.size();
+  }
+
+  /**
+   * Returns the number of fences too big for either grid, which every lookup checks.
+   */
+  int oversizedCount() {
+    return oversized.length;
+  }
+
+  /**
+   * Returns the locations whose geofence contains the point.
+   */
+  public List<Location> containing(Location point) {
+    var geoPoint = point.geoPoint();
+    var found = new ArrayList<Location>();
+    collect(fine.at(geoPoint), geoPoint, found);
+    collect(coarse.at(geoPoint), geoPoint, found);
+    collect(oversized, geoPoint, found);
+    return found;
+  }
+
+  /**
+   * Returns the location, among those whose geofence contains the point, that is closest to it.  This is the location
+   * a GPS or beacon position should be snapped to.
+   */
+  public Optional<Location> snap(Location point) {
+    var geoPoint = point.geoPoint();
+    Location nearest = null;
+    double nearestMiles = Double.POSITIVE_INFINITY;
+    for (Location location : containing(point)) {
+      double miles = GeoMath.distanceMiles(geoPoint, location.geoPoint());
+      if (miles < nearestMiles) {
+        nearest = location;
+        nearestMiles = miles;
+      }
+    }
+    return Optional.ofNullable(nearest);
+  }
+
+  private static void collect(Fence[] candidates, GeoPoint point, List<Location> found) {
+    for (Fence fence : candidates) {
+      if (GeoMath.withinMiles(point, fence.center, fence.miles)) {
+        found.add(fence.location);
+      }
+    }
+  }
+
+  private static double radiusOf(Location location) {
+    return Math.max(location.getRadius(), location.getRadiateTo());
+  }
+
+  private static Object identity(Location location) {
+    return location.getKey() != null ? location.getKey() : Equivalence.identity()
+        .wrap(location);
+  }
+
+  private static Fence[] concat(Fence[] a, Fence[] b) {
+    var result = Arrays.copyOf(a, a.length + b.length);
+    System.arraycopy(b, 0, result, a.length, b.length);
+    return result;
+  }
+
+  private static Fence[] without(Fence[] fences, Fence fence) {
+    var result = Arrays.stream(fences)
+        .filter(candidate -> candidate != fence)
+        .toArray(Fence[]::new);
+    return result.length == 0 ? null : result;
+  }
+
+  private static class Grid {
+    private final double cellDegrees;
+    private final int longitudeCells;
+    private final Map<Long, Fence[]> cells = new ConcurrentHashMap<>();
+
+    private Grid(double cellMiles) {
+      this.cellDegrees = cellMiles / MILES_PER_DEGREE;
+      this.longitudeCells = (int) Math.ceil(360 / cellDegrees);
+    }
+
+    private boolean add(Fence fence) {
+      return forEachCell(fence, cell -> cells.merge(cell, new Fence[] {fence}, GeofenceIndex::concat));
+    }
+
+    private boolean remove(Fence fence) {
+      return forEachCell(fence, cell -> cells.computeIfPresent(cell, (key, existing) -> without(existing, fence)));
+    }
+
+    private Fence[] at(GeoPoint point) {
+      return cells.getOrDefault(cellKey(latitudeCell(point.getLatitude()), longitudeCell(point.getLongitude())),
+          NO_FENCES);
+    }
+
+    /**
+     * Runs the action for each cell the fence's bounding box overlaps, or returns false if it's too big for this grid.
+     */
+    private boolean forEachCell(Fence fence, LongConsumer action) {
+      double latDelta = fence.miles / MILES_PER_DEGREE;
+      double maxLatitude = Math.abs(fence.center.getLatitude()) + latDelta;
+      int minLat = latitudeCell(fence.center.getLatitude() - latDelta);
+      int maxLat = latitudeCell(fence.center.getLatitude() + latDelta);
+      if (maxLatitude >= 90) {
+        return false;
+      }
+      double lngDelta = latDelta / Math.cos(Math.toRadians(maxLatitude));
+      if (2 * lngDelta >= 360 - cellDegrees) {
+        return false;
+      }
+      int minLng = longitudeCell(fence.center.getLongitude() - lngDelta);
+      int lngCount = Math.floorMod(longitudeCell(fence.center.getLongitude() + lngDelta) - minLng, longitudeCells) + 1;
+      if ((long) (maxLat - minLat + 1) * lngCount > MAX_CELLS_PER_FENCE) {
+        return false;
+      }
+      for (int lat = minLat; lat <= maxLat; lat++) {
+        for (int i = 0; i < lngCount; i++) {
+          action.accept(cellKey(lat, (minLng + i) % longitudeCells));
+        }
+      }
+      return true;
+    }
+
+    private int latitudeCell(double latitude) {
+      return (int) Math.floor(latitude / cellDegrees);
+    }
+
+    private int longitudeCell(double longitude) {
+      // degrees east of the antimeridian, in [0, 360)
+      double east = longitude + 180 - 360 * Math.floor((longitude + 180) / 360);
+      return Math.min(longitudeCells - 1, (int) Math.floor(east / cellDegrees));
+    }
+
+    private static long cellKey(int latCell, int lngCell) {
+      return ((long) latCell << 32) ^ (lngCell & 0xffffffffL);
+    }
+  }
+
+  private static class Fence {
+    private final Location location;
+    private final GeoPoint center;
+    private final double miles;
+
+    private Fence(Location location, double miles) {
+      this.location = location;
+      this.center = location.geoPoint();
+      this.miles = miles;
+    }
+  }
+}
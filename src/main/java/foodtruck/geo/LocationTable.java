@@ -0,0 +1,231 @@
+package foodtruck.geo;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+
+import com.javadocmd.simplelatlng.util.LatLngConfig;
+
+import foodtruck.models.Location;
+
+/**
+ * An immutable, column-oriented copy of a set of locations for bulk geographic scans.
+ *
+ * <p>Coordinates are stored as parallel arrays of fixed-point micro-degrees (the same precision simplelatlng's
+ * {@link LatLngConfig} uses), the radius and boolean attributes as packed primitives, and names as indexes into a
+ * de-duplicated dictionary.  Rows are sorted by latitude, so a scan binary-searches the band of latitudes it needs,
+ * runs a tight longitude loop over that band and only does the trigonometry for the rows that survive it.
+ *
+ * <p>The table doesn't hold on to the locations it was built from.  Each row keeps the location's datastore key, for
+ * fetching the full location, and {@link #location(int)} rebuilds a location from the columns.
+ */
+public final class LocationTable {
+
+  public static final int VALID = 1;
+  public static final int POPULAR = 1 << 1;
+  public static final int DESIGNATED_STOP = 1 << 2;
+  public static final int HAS_BOOZE = 1 << 3;
+  public static final int CLOSED = 1 << 4;
+  public static final int EVENT = 1 << 5;
+  public static final int AUTOCOMPLETE = 1 << 6;
+  public static final int ALEXA_PROVIDED = 1 << 7;
+  public static final int BLACKLISTED_FROM_CALENDAR_SEARCH = 1 << 8;
+
+  private static final double RADIANS_PER_MICRO_DEGREE = Math.toRadians(LatLngConfig.DEGREE_PRECISION);
+  private static final double MILES_PER_DEGREE = GeoMath.EARTH_RADIUS_MILES * Math.toRadians(1);
+  private static final int MAX_LONGITUDE = microDegrees(180);
+  private static final long NO_KEY = Long.MIN_VALUE;
+
+  private final int size;
+  private final int[] latitudes;
+  private final int[] longitudes;
+  private final float[] radii;
+  private final int[] flags;
+  private final int[] nameIds;
+  private final String[] names;
+  private final long[] keys;
+
+  private LocationTable(Collection<Location> locations) {
+    this.size = locations.size();
+    this.latitudes = new int[size];
+    this.longitudes = new int[size];
+    this.radii = new float[size];
+    this.flags = new int[size];
+    this.nameIds = new int[size];
+    this.keys = new long[size];
+    var sorted = locations.toArray(new Location[0]);
+    Arrays.sort(sorted, Comparator.comparingDouble(Location::getLatitude));
+    var dictionary = new HashMap<String, Integer>();
+    int row = 0;
+    for (Location location : sorted) {
+      latitudes[row] = microDegrees(location.getLatitude());
+      longitudes[row] = microDegrees(location.getLongitude());
+      radii[row] = (float) location.getRadius();
+      flags[row] = flagsOf(location);
+      keys[row] = location.getKey() == null ? NO_KEY : location.getKey();
+      nameIds[row] = location.getName() == null ? -1 : dictionary.computeIfAbsent(location.getName(),
+          name -> dictionary.size());
+      row++;
+    }
+    this.names = new String[dictionary.size()];
+    dictionary.forEach((name, id) -> names[id] = name);
+  }
+
+  public static LocationTable of(Collection<Location> locations) {
+    return new LocationTable(locations);
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public double latitude(int row) {
+    return LatLngConfig.longToDouble(latitudes[row]);
+  }
+
+  public double longitude(int row) {
+    return LatLngConfig.longToDouble(longitudes[row]);
+  }
+
+  public double radius(int row) {
+    return radii[row];
+  }
+
+  public boolean is(int row, int flag) {
+    return (flags[row] & flag) == flag;
+  }
+
+  public String name(int row) {
+    int id = nameIds[row];
+    return id < 0 ? null : names[id];
+  }
+
+  /**
+   * Returns the datastore key of the row's location, or null if it didn't have one.
+   */
+  public Long key(int row) {
+    return keys[row] == NO_KEY ? null : keys[row];
+  }
+
+  /**
+   * Rebuilds the row's location from the columns.  Only the name, key, coordinates (to the micro-degree), radius and
+   * flags are kept, so use {@link #key(int)} to fetch the full location when the other fields are needed.
+   */
+  public Location location(int row) {
+    return Location.builder()
+        .key(key(row))
+        .name(name(row))
+        .lat(latitude(row))
+        .lng(longitude(row))
+        .radius(radius(row))
+        .valid(is(row, VALID))
+        .popular(is(row, POPULAR))
+        .designatedStop(is(row, DESIGNATED_STOP))
+        .hasBooze(is(row, HAS_BOOZE))
+        .closed(is(row, CLOSED))
+        .eventSpecific(is(row, EVENT))
+        .autocomplete(is(row, AUTOCOMPLETE))
+        .alexaProvided(is(row, ALEXA_PROVIDED))
+        .blacklistedFromCalendarSearch(is(row, BLACKLISTED_FROM_CALENDAR_SEARCH))
+        .build();
+  }
+
+  /**
+   * Returns the rows (in ascending order) whose coordinates are inside the box.  If west is greater than east the box
+   * is taken to cross the antimeridian.
+   */
+  public int[] withinBoundingBox(double south, double west, double north, double east) {
+    return scanBox(microDegrees(south), microDegrees(north), microDegrees(west), microDegrees(east));
+  }
+
+  /**
+   * Returns the rows (in ascending order) that are strictly less than the specified number of miles from the point.
+   * This is the same strict test as {@link Location#within(double)}, but it uses the table's micro-degree
+   * coordinates, so a location within about a tenth of a meter of the boundary may be decided differently.
+   */
+  public int[] withinMiles(Location location, double miles) {
+    var center = location.geoPoint();
+    double latDelta = miles / MILES_PER_DEGREE;
+    double maxLatitude = Math.abs(center.getLatitude()) + latDelta;
+    double lngDelta = maxLatitude >= 90 ? 180 : latDelta / Math.cos(Math.toRadians(maxLatitude));
+    int south = microDegrees(center.getLatitude() - latDelta), north = microDegrees(center.getLatitude() + latDelta);
+    int[] rows;
+    if (lngDelta >= 180) {
+      // the circle covers a pole (or is huge), so every longitude is in play
+      rows = scanBox(south, north, -MAX_LONGITUDE, MAX_LONGITUDE);
+    } else {
+      rows = scanBox(south, north, microDegrees(wrap(center.getLongitude() - lngDelta)),
+          microDegrees(wrap(center.getLongitude() + lngDelta)));
+    }
+    int matches = 0;
+    for (int i = 0; i < rows.length; i++) {
+      int row = rows[i];
+      double distance = GeoMath.distanceMiles(center, latitudes[row] * RADIANS_PER_MICRO_DEGREE,
+          longitudes[row] * RADIANS_PER_MICRO_DEGREE);
+      if (distance < miles) {
+        rows[matches++] = row;
+      }
+    }
+    return Arrays.copyOf(rows, matches);
+  }
+
+  /**
+   * Returns the rows inside the box.  The longitude loops are branch-free apart from the loop condition, so the JIT
+   * can keep them tight.
+   */
+  private int[] scanBox(int south, int north, int west, int east) {
+    final int[] lngs = longitudes;
+    int from = firstRowAtOrAbove(south), to = firstRowAtOrAbove(north == Integer.MAX_VALUE ? north : north + 1);
+    var rows = new int[Math.max(0, to - from)];
+    int count = 0;
+    if (west <= east) {
+      for (int row = from; row < to; row++) {
+        int lng = lngs[row];
+        rows[count] = row;
+        count += (lng >= west & lng <= east) ? 1 : 0;
+      }
+    } else {
+      for (int row = from; row < to; row++) {
+        int lng = lngs[row];
+        rows[count] = row;
+        count += (lng >= west | lng <= east) ? 1 : 0;
+      }
+    }
+    return count == rows.length ? rows : Arrays.copyOf(rows, count);
+  }
+
+  private int firstRowAtOrAbove(int latitude) {
+    int lo = 0, hi = size;
+    while (lo < hi) {
+      int mid = (lo + hi) >>> 1;
+      if (latitudes[mid] < latitude) {
+        lo = mid + 1;
+      } else {
+        hi = mid;
+      }
+    }
+    return lo;
+  }
+
+  private static int flagsOf(Location location) {
+    return (location.isValid() ? VALID : 0) | (location.isPopular() ? POPULAR : 0) |
+        (location.isDesignatedStop() ? DESIGNATED_STOP : 0) | (location.isHasBooze() ? HAS_BOOZE : 0) |
+        (location.isClosed() ? CLOSED : 0) | (location.isEvent() ? EVENT : 0) |
+        (location.isAutocomplete() ? AUTOCOMPLETE : 0) | (location.isAlexaProvided() ? ALEXA_PROVIDED : 0) |
+        (location.isBlacklistedFromCalendarSearch() ? BLACKLISTED_FROM_CALENDAR_SEARCH : 0);
+  }
+
+  private static double wrap(double longitude) {
+    if (longitude < -180) {
+      return longitude + 360;
+    } else if (longitude > 180) {
+      return longitude - 360;
+    }
+    return longitude;
+  }
+
+  private static int microDegrees(double degrees) {
+    return (int) LatLngConfig.doubleToLong(degrees);
+  }
+}
@@ -0,0 +1,175 @@
+package foodtruck.geo;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.Function;
+
+import com.google.common.base.MoreObjects;
+
+import foodtruck.models.Location;
+
+/**
+ * An immutable k-d tree for "k nearest" queries over anything with a {@link Location} (locations, truck stops, etc).
+ *
+ * <p>Points are stored as unit vectors on the sphere.  Straight-line (chord) distance between unit vectors increases
+ * monotonically with great-circle distance, so the tree can prune with cheap Euclidean bounds and still return exactly
+ * the nearest points by great-circle distance.  Each candidate's distance is computed once and results come back
+ * sorted nearest first.
+ *
+ * @param <T> the type of item indexed
+ */
+public class NearestNeighborIndex<T> {
+
+  private final double[][] coordinates;
+  private final List<T> items;
+
+  private NearestNeighborIndex(List<T> items, Function<T, Location> locationFunction) {
+    var nodes = new ArrayList<Node<T>>(items.size());
+    for (T item : items) {
+      var location = locationFunction.apply(item);
+      if (location != null) {
+        nodes.add(new Node<>(item, location.geoPoint()));
+      }
+    }
+    build(nodes, 0, nodes.size(), 0);
+    this.coordinates = new double[nodes.size()][];
+    this.items = new ArrayList<>(nodes.size());
+    for (int i = 0; i < nodes.size(); i++) {
+      coordinates[i] = nodes.get(i).vector;
+      this.items.add(nodes.get(i).item);
+    }
+  }
+
+  public static <T> NearestNeighborIndex<T> of(Collection<T> items, Function<T, Location> locationFunction) {
+    return new NearestNeighborIndex<>(new ArrayList<>(items), locationFunction);
+  }
+
+  public static NearestNeighborIndex<Location> ofLocations(Collection<Location> locations) {
+    return of(locations, Function.identity());
+  }
+
+  public int size() {
+    return items.size();
+  }
+
+  /**
+   * Returns the (up to) k items nearest to the location, nearest first.
+   */
+  public List<Neighbor<T>> nearest(Location location, int k) {
+    return nearest(location, k, Double.POSITIVE_INFINITY);
+  }
+
+  /**
+   * Returns the (up to) k items nearest to the location that are strictly within the specified number of miles,
+   * nearest first.
+   */
+  public List<Neighbor<T>> nearest(Location location, int k, double maxMiles) {
+    if (k <= 0 || items.isEmpty()) {
+      return List.of();
+    }
+    var query = vector(location.geoPoint());
+    double angle = maxMiles / GeoMath.EARTH_RADIUS_MILES;
+    double limit = angle >= Math.PI ? Double.POSITIVE_INFINITY : square(2 * Math.sin(angle / 2));
+    // a max-heap of (chord squared, index) so the current worst candidate is on top
+    var best = new PriorityQueue<double[]>(k + 1, Comparator.comparingDouble((double[] c) -> c[0])
+        .reversed());
+    search(query, 0, items.size(), 0, k, limit, best);
+    var results = new ArrayList<Neighbor<T>>(best.size());
+    while (!best.isEmpty()) {
+      var candidate = best.poll();
+      double chord = Math.sqrt(candidate[0]);
+      double miles = 2 * Math.asin(Math.min(1, chord / 2)) * GeoMath.EARTH_RADIUS_MILES;
+      results.add(new Neighbor<>(items.get((int) candidate[1]), miles));
+    }
+    Collections.reverse(results);
+    return results;
+  }
+
+  private void search(double[] query, int lo, int hi, int depth, int k, double limit, PriorityQueue<double[]> best) {
+    if (lo >= hi) {
+      return;
+    }
+    int mid = (lo + hi) >>> 1;
+    int axis = depth % 3;
+    double[] point = coordinates[mid];
+    double distance = square(point[0] - query[0]) + square(point[1] - query[1]) + square(point[2] - query[2]);
+    if (distance < limit && (best.size() < k || distance < best.peek()[0])) {
+      best.add(new double[] {distance, mid});
+      if (best.size() > k) {
+        best.poll();
+      }
+    }
+    double delta = query[axis] - point[axis];
+    int nearLo = delta < 0 ? lo : mid + 1, nearHi = delta < 0 ? mid : hi;
+    int farLo = delta < 0 ? mid + 1 : lo, farHi = delta < 0 ? hi : mid;
+    search(query, nearLo, nearHi, depth + 1, k, limit, best);
+    double bound = delta * delta;
+    if (bound < limit && (best.size() < k || bound < best.peek()[0])) {
+      search(query, farLo, farHi, depth + 1, k, limit, best);
+    }
+  }
+
+  private static <T> void build(List<Node<T>> nodes, int lo, int hi, int depth) {
+    if (hi - lo <= 1) {
+      return;
+    }
+    int axis = depth % 3;
+    nodes.subList(lo, hi)
+        .sort(Comparator.comparingDouble(node -> node.vector[axis]));
+    int mid = (lo + hi) >>> 1;
+    build(nodes, lo, mid, depth + 1);
+    build(nodes, mid + 1, hi, depth + 1);
+  }
+
+  private static double[] vector(GeoPoint point) {
+    return new double[] {point.cosLatitude * Math.cos(point.lngRadians), point.cosLatitude * Math.sin(
+        point.lngRadians), Math.sin(point.latRadians)};
+  }
+
+  private static double square(double value) {
+    return value * value;
+  }
+
+  private static class Node<T> {
+    private final T item;
+    private final double[] vector;
+
+    private Node(T item, GeoPoint point) {
+      this.item = item;
+      this.vector = vector(point);
+    }
+  }
+
+  /**
+   * An item returned from a nearest-neighbour query along with its distance from the query point.
+   */
+  public static class Neighbor<T> {
+    private final T item;
+    private final double miles;
+
+    private Neighbor(T item, double miles) {
+      this.item = item;
+      this.miles = miles;
+    }
+
+    public T getItem() {
+      return item;
+    }
+
+    public double getMiles() {
+      return miles;
+    }
+
+    @Override
+    public String toString() {
+      return MoreObjects.toStringHelper(this)
+          .add("item", item)
+          .add("miles", miles)
+          .toString();
+    }
+  }
+}
@@ -0,0 +1,187 @@
+package foodtruck.geo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * An immutable R-tree over named polygonal regions, bulk-loaded with the sort-tile-recursive algorithm.  A lookup
+ * walks down only the nodes whose bounding boxes contain the point and then runs a point-in-polygon test on the
+ * regions in the leaves it reaches.  Where regions overlap, the one that came first in the list wins; each node
+ * remembers the earliest region under it, so a lookup skips subtrees that can't beat what it has already found.
+ */
+class RegionIndex {
+
+  private static final int NODE_CAPACITY = 16;
+  // how close, in degrees, a point has to be to a boundary to count as on it (about 0.1mm)
+  private static final double ON_BOUNDARY_DEGREES = 1e-9;
+
+  private final Node root;
+
+  RegionIndex(List<Region> regions) {
+    List<Node> level = new ArrayList<>();
+    for (int i = 0; i < regions.size(); i++) {
+      level.add(new Node(regions.get(i), i));
+    }
+    if (level.isEmpty()) {
+      this.root = null;
+      return;
+    }
+    while (level.size() > 1) {
+      level = pack(level);
+    }
+    this.root = level.get(0);
+  }
+
+  /**
+   * Returns the name of the earliest region that contains the point, or null if none does.
+   */
+  String find(double latitude, double longitude) {
+    if (root == null) {
+      return null;
+    }
+    Node found = null;
+    var stack = new ArrayList<Node>();
+    stack.add(root);
+    while (!stack.isEmpty()) {
+      var node = stack.remove(stack.size() - 1);
+      if (!node.contains(longitude, latitude) || found != null && node.order >= found.order) {
+        continue;
+      }
+      if (node.region != null) {
+        if (node.region.contains(longitude, latitude)) {
+          found = node;
+        }
+      } else {
+        stack.addAll(Arrays.asList(node.children));
+      }
+    }
+    return found == null ? null : found.region.name;
+  }
+
+  /**
+   * Groups one level of nodes into parents: sort by x, cut into vertical slices, sort each slice by y and fill parents
+   * from it in order.
+   */
+  private static List<Node> pack(List<Node> nodes) {
+    int parents = (int) Math.ceil(nodes.size() / (double) NODE_CAPACITY);
+    int slices = (int) Math.ceil(Math.sqrt(parents));
+    int sliceSize = slices * NODE_CAPACITY;
+    var sorted = new ArrayList<>(nodes);
+    sorted.sort(Comparator.comparingDouble(node -> node.minX + node.maxX));
+    var packed = new ArrayList<Node>(parents);
+    for (int start = 0; start < sorted.size(); start += sliceSize) {
+      var slice = new ArrayList<>(sorted.subList(start, Math.min(sorted.size(), start + sliceSize)));
+      slice.sort(Comparator.comparingDouble(node -> node.minY + node.maxY));
+      for (int i = 0; i < slice.size(); i += NODE_CAPACITY) {
+        packed.add(new Node(slice.subList(i, Math.min(slice.size(), i + NODE_CAPACITY))
+            .toArray(new Node[0])));
+      }
+    }
+    return packed;
+  }
+
+  private static class Node {
+    private final double minX, minY, maxX, maxY;
+    private final Node[] children;
+    private final Region region;
+    // the position of the region, or the earliest position of any region below
+    private final int order;
+
+    private Node(Region region, int order) {
+      this.region = region;
+      this.order = order;
+      this.children = null;
+      this.minX = region.minX;
+      this.minY = region.minY;
+      this.maxX = region.maxX;
+      this.maxY = region.maxY;
+    }
+
+    private Node(Node[] children) {
+      this.region = null;
+      this.children = children;
+      double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY;
+      double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+      int order = Integer.MAX_VALUE;
+      for (Node child : children) {
+        order = Math.min(order, child.order);
+        minX = Math.min(minX, child.minX);
+        minY = Math.min(minY, child.minY);
+        maxX = Math.max(maxX, child.maxX);
+        maxY = Math.max(maxY, child.maxY);
+      }
+      this.minX = minX;
+      this.minY = minY;
+      this.maxX = maxX;
+      this.maxY = maxY;
+      this.order = order;
+    }
+
+    private boolean contains(double x, double y) {
+      return x >= minX && x <= maxX && y >= minY && y <= maxY;
+    }
+  }
+
+  /**
+   * A named area made up of one or more polygons, each an outer ring with optional holes.  All the rings are kept
+   * together and tested with the even-odd rule, which treats holes (and the gaps between separate polygons) as
+   * outside.  A point on any ring, including a hole's, is inside: a truck parked on the street that borders two
+   * neighborhoods is in both, and the earlier one is reported.
+   */
+  static class Region {
+    private final String name;
+    private final List<double[]> rings;
+    private final double minX, minY, maxX, maxY;
+
+    /**
+     * @param rings each ring as alternating longitude, latitude coordinates
+     */
+    Region(String name, List<double[]> rings) {
+      this.name = name;
+      this.rings = rings;
+      double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY;
+      double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+      for (double[] ring : rings) {
+        for (int i = 0; i < ring.length; i += 2) {
+          minX = Math.min(minX, ring[i]);
+          maxX = Math.max(maxX, ring[i]);
+          minY = Math.min(minY, ring[i + 1]);
+          maxY = Math.max(maxY, ring[i + 1]);
+        }
+      }
+      this.minX = minX;
+      this.minY = minY;
+      this.maxX = maxX;
+      this.maxY = maxY;
+    }
+
+    private boolean contains(double x, double y) {
+      boolean inside = false;
+      for (double[] ring : rings) {
+        int n = ring.length / 2;
+        for (int i = 0, j = n - 1; i < n; j = i++) {
+          double xi = ring[2 * i], yi = ring[2 * i + 1], xj = ring[2 * j], yj = ring[2 * j + 1];
+          if (onEdge(x, y, xi, yi, xj, yj)) {
+            return true;
+          }
+          if ((yi > y) != (yj > y) && x < (xj - xi) * (y - yi) / (yj - yi) + xi) {
+            inside = !inside;
+          }
+        }
+      }
+      return inside;
+    }
+
+    private static boolean onEdge(double x, double y, double xi, double yi, double xj, double yj) {
+      if (x < Math.min(xi, xj) - ON_BOUNDARY_DEGREES || x > Math.max(xi, xj) + ON_BOUNDARY_DEGREES ||
+          y < Math.min(yi, yj) - ON_BOUNDARY_DEGREES || y > Math.max(yi, yj) + ON_BOUNDARY_DEGREES) {
+        return false;
+      }
+      // the distance from the edge's line, scaled by the edge's length
+      double cross = (xj - xi) * (y - yi) - (yj - yi) * (x - xi);
+      return Math.abs(cross) <= ON_BOUNDARY_DEGREES * Math.hypot(xj - xi, yj - yi);
+    }
+  }
+}
@@ -0,0 +1,151 @@
+package foodtruck.geo;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.logging.Logger;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.base.Strings;
+
+import foodtruck.models.Location;
+import foodtruck.util.ServiceException;
+
+/**
+ * Looks up the city and neighborhood of a coordinate locally, from city and neighborhood boundaries loaded from
+ * GeoJSON feature collections (Polygon and MultiPolygon geometries, with holes).  A point on a boundary is inside
+ * it, and where boundaries overlap the one added first wins.
+ */
+public class ReverseGeocoder {
+
+  private static final Logger log = Logger.getLogger(ReverseGeocoder.class.getName());
+
+  private final RegionIndex cities;
+  private final RegionIndex neighborhoods;
+
+  private ReverseGeocoder(Builder builder) {
+    this.cities = new RegionIndex(builder.cities);
+    this.neighborhoods = new RegionIndex(builder.neighborhoods);
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  public Optional<String> city(double latitude, double longitude) {
+    return Optional.ofNullable(cities.find(latitude, longitude));
+  }
+
+  public Optional<String> neighborhood(double latitude, double longitude) {
+    return Optional.ofNullable(neighborhoods.find(latitude, longitude));
+  }
+
+  /**
+   * Returns the location with its city and neighborhood filled in where they are missing and the boundaries cover
+   * it.  The location itself is returned if there's nothing to add.
+   */
+  public Location enrich(Location location) {
+    String city = location.getCity(), neighborhood = location.getNeighborhood();
+    if (Strings.isNullOrEmpty(city)) {
+      city = cities.find(location.getLatitude(), location.getLongitude());
+    }
+    if (Strings.isNullOrEmpty(neighborhood)) {
+      neighborhood = neighborhoods.find(location.getLatitude(), location.getLongitude());
+    }
+    if (Strings.isNullOrEmpty(city) && Strings.isNullOrEmpty(neighborhood) ||
+        Objects.equals(city, location.getCity()) && Objects.equals(neighborhood, location.getNeighborhood())) {
+      return location;
+    }
+    return Location.builder(location)
+        .city(city)
+        .neighborhood(neighborhood)
+        .build();
+  }
+
+  public static class Builder {
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final List<RegionIndex.Region> cities = new ArrayList<>();
+    private final List<RegionIndex.Region> neighborhoods = new ArrayList<>();
+
+    private Builder() {
+    }
+
+    /**
+     * Adds city boundaries from a GeoJSON feature collection.
+     *
+     * @param nameProperty the feature property that holds the city's name
+     */
+    public Builder cities(InputStream geoJson, String nameProperty) {
+      cities.addAll(read(geoJson, nameProperty));
+      return this;
+    }
+
+    /**
+     * Adds neighborhood boundaries from a GeoJSON feature collection.
+     *
+     * @param nameProperty the feature property that holds the neighborhood's name
+     */
+    public Builder neighborhoods(InputStream geoJson, String nameProperty) {
+      neighborhoods.addAll(read(geoJson, nameProperty));
+      return this;
+    }
+
+    public ReverseGeocoder build() {
+      return new ReverseGeocoder(this);
+    }
+
+    private List<RegionIndex.Region> read(InputStream geoJson, String nameProperty) {
+      var regions = new ArrayList<RegionIndex.Region>();
+      try {
+        JsonNode root = mapper.readTree(geoJson);
+        for (JsonNode feature : root.path("features")) {
+          var name = feature.path("properties")
+              .path(nameProperty)
+              .asText(null);
+          var geometry = feature.path("geometry");
+          var rings = new ArrayList<double[]>();
+          switch (geometry.path("type")
+              .asText()) {
+            case "Polygon":
+              addPolygon(geometry.path("coordinates"), rings);
+              break;
+            case "MultiPolygon":
+              for (JsonNode polygon : geometry.path("coordinates")) {
+                addPolygon(polygon, rings);
+              }
+              break;
+            default:
+              log.warning("Skipping feature " + name + " with unsupported geometry " + geometry.path("type"));
+              continue;
+          }
+          if (name != null && !rings.isEmpty()) {
+            regions.add(new RegionIndex.Region(name, rings));
+          }
+        }
+      } catch (IOException e) {
+        throw new ServiceException("Could not read boundaries", e);
+      }
+      return regions;
+    }
+
+    private static void addPolygon(JsonNode polygon, List<double[]> rings) {
+      for (JsonNode ring : polygon) {
+        var coordinates = new double[ring.size() * 2];
+        int i = 0;
+        for (JsonNode position : ring) {
+          coordinates[i++] = position.get(0)
+              .asDouble();
+          coordinates[i++] = position.get(1)
+              .asDouble();
+        }
+        if (coordinates.length >= 6) {
+          rings.add(coordinates);
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,55 @@
+package foodtruck.json;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.DeserializationConfig;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.deser.BeanDeserializerModifier;
+import com.fasterxml.jackson.databind.deser.std.DelegatingDeserializer;
+
+import foodtruck.models.Location;
+import foodtruck.models.LocationInterner;
+
+/**
+ * Wraps the standard bean deserializer for {@link Location} so that every location read from JSON (including ones
+ * nested in truck stops) is swapped for its canonical instance.
+ */
+public class InterningLocationDeserializer extends DelegatingDeserializer {
+
+  private final LocationInterner interner;
+
+  public InterningLocationDeserializer(JsonDeserializer<?> delegate, LocationInterner interner) {
+    super(delegate);
+    this.interner = interner;
+  }
+
+  @Override
+  protected JsonDeserializer<?> newDelegatingInstance(JsonDeserializer<?> newDelegatee) {
+    return new InterningLocationDeserializer(newDelegatee, interner);
+  }
+
+  @Override
+  public Object deserialize(JsonParser jp, DeserializationContext context) throws IOException {
+    return interner.intern((Location) super.deserialize(jp, context));
+  }
+
+  static class Modifier extends BeanDeserializerModifier {
+    private final LocationInterner interner;
+
+    Modifier(LocationInterner interner) {
+      this.interner = interner;
+    }
+
+    @Override
+    public JsonDeserializer<?> modifyDeserializer(DeserializationConfig config, BeanDescription beanDesc,
+        JsonDeserializer<?> deserializer) {
+      if (beanDesc.getBeanClass() == Location.class) {
+        return new InterningLocationDeserializer(deserializer, interner);
+      }
+      return deserializer;
+    }
+  }
+}
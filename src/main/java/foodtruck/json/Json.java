@@ -1,18 +1,38 @@
 package foodtruck.json;
 
 import java.time.ZonedDateTime;
+import java.util.regex.Pattern;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.module.SimpleModule;
 import com.javadocmd.simplelatlng.LatLng;
 
+import foodtruck.models.LocationInterner;
+
 public class Json {
   public static ObjectMapper provideObjectMapper() {
     ObjectMapper mapper = new ObjectMapper();
-    mapper.registerModule(new SimpleModule()
+    mapper.registerModule(module());
+    return mapper;
+  }
+
+  /**
+   * Like {@link #provideObjectMapper()}, but every {@link foodtruck.models.Location} it reads is swapped for the
+   * {@link LocationInterner#shared() shared} canonical instance.  Those instances are shared with every other reader
+   * and can't be changed, so only use this for data that is read and not modified.
+   */
+  public static ObjectMapper provideInterningObjectMapper() {
+    ObjectMapper mapper = new ObjectMapper();
+    mapper.registerModule(module()
+        .setDeserializerModifier(new InterningLocationDeserializer.Modifier(LocationInterner.shared())));
+    return mapper;
+  }
+
+  private static SimpleModule module() {
+    return new SimpleModule()
         .addDeserializer(LatLng.class, new LatLngDeserializer())
         .addDeserializer(ZonedDateTime.class, new ZonedDateTimeDeserializer())
-        .addSerializer(ZonedDateTime.class, new ZonedDateTimeSerializer()));
-    return mapper;
+        .addDeserializer(Pattern.class, new PatternDeserializer())
+        .addSerializer(ZonedDateTime.class, new ZonedDateTimeSerializer());
   }
 }
@@ -0,0 +1,24 @@
+package foodtruck.json;
+
+import java.io.IOException;
+import java.util.regex.Pattern;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+
+import foodtruck.util.Patterns;
+
+/**
+ * Deserializes regular expressions through the shared {@link Patterns} cache.
+ */
+public class PatternDeserializer extends JsonDeserializer<Pattern> {
+
+  @Override
+  public Pattern deserialize(JsonParser jp,
+      DeserializationContext deserializationContext) throws IOException, JsonProcessingException {
+    var regex = jp.getValueAsString();
+    return regex == null || regex.isEmpty() ? null : Patterns.compile(regex);
+  }
+}
@@ -0,0 +1,76 @@
+package foodtruck.models;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * An inverted index from categories to the trucks of a fleet, for questions like "which trucks serve breakfast but
+ * aren't popups".  Each category maps to a {@link BitSet} of truck positions, so a query is a few word-wide
+ * {@code and}/{@code andNot} operations over the fleet rather than a category lookup per truck.  Instances are
+ * immutable; build a new one when the fleet changes.
+ */
+public class CategoryIndex {
+
+  private static final BitSet NONE = new BitSet();
+
+  private final Truck[] trucks;
+  // indexed by CategoryRegistry number; trucks by position in the fleet
+  private final BitSet[] trucksByCategory;
+
+  private CategoryIndex(Collection<Truck> trucks) {
+    this.trucks = trucks.toArray(new Truck[0]);
+    var lists = new ArrayList<BitSet>();
+    for (int i = 0; i < this.trucks.length; i++) {
+      var categories = this.trucks[i].categoryBits();
+      for (int category = categories.nextSetBit(0); category >= 0; category = categories.nextSetBit(category + 1)) {
+        while (lists.size() <= category) {
+          lists.add(null);
+        }
+        if (lists.get(category) == null) {
+          lists.set(category, new BitSet(this.trucks.length));
+        }
+        lists.get(category)
+            .set(i);
+      }
+    }
+    this.trucksByCategory = lists.toArray(new BitSet[0]);
+  }
+
+  public static CategoryIndex of(Collection<Truck> trucks) {
+    return new CategoryIndex(trucks);
+  }
+
+  /**
+   * Returns the trucks that have all the categories in {@code with} and none of those in {@code without}, in the
+   * order the trucks were given.  With no required categories, every truck that isn't excluded is returned.
+   */
+  public List<Truck> find(Collection<String> with, Collection<String> without) {
+    var matches = new BitSet(trucks.length);
+    matches.set(0, trucks.length);
+    for (String category : with) {
+      matches.and(trucks(category));
+    }
+    for (String category : without) {
+      matches.andNot(trucks(category));
+    }
+    var result = new ArrayList<Truck>(matches.cardinality());
+    for (int i = matches.nextSetBit(0); i >= 0; i = matches.nextSetBit(i + 1)) {
+      result.add(trucks[i]);
+    }
+    return result;
+  }
+
+  /**
+   * Returns the number of trucks with the category.
+   */
+  public int count(String category) {
+    return trucks(category).cardinality();
+  }
+
+  private BitSet trucks(String category) {
+    int id = CategoryRegistry.find(category);
+    return id >= 0 && id < trucksByCategory.length && trucksByCategory[id] != null ? trucksByCategory[id] : NONE;
+  }
+}
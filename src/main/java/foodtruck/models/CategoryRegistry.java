@@ -0,0 +1,90 @@
+package foodtruck.models;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Assigns each truck category name a small, stable (for the life of the process) number, so a truck's categories can
+ * be held as a {@link BitSet} and tested without string comparisons.  Numbers are handed out in the order names are
+ * first seen; the categories the code itself checks are registered up front and have constants here.
+ */
+public class CategoryRegistry {
+
+  private static final Map<String, Integer> IDS = new ConcurrentHashMap<>();
+  // guarded by IDS for writes
+  private static volatile String[] names = new String[0];
+
+  public static final int BREAKFAST = register("Breakfast");
+  public static final int POPUP = register("Popup");
+  public static final int LUNCH = register("Lunch");
+
+  private CategoryRegistry() {
+  }
+
+  /**
+   * Returns the category's number, assigning it one if it hasn't been seen before.
+   */
+  public static int register(String category) {
+    var id = IDS.get(category);
+    return id != null ? id : assign(category);
+  }
+
+  /**
+   * Returns the category's number, or -1 if no truck has had it.
+   */
+  public static int find(String category) {
+    return category == null ? -1 : IDS.getOrDefault(category, -1);
+  }
+
+  public static String name(int id) {
+    return names[id];
+  }
+
+  /**
+   * Returns the numbers of the categories as a bit set, registering any not seen before.
+   */
+  public static BitSet bits(Collection<String> categories) {
+    var bits = new BitSet();
+    if (categories != null) {
+      for (String category : categories) {
+        if (category != null) {
+          bits.set(register(category));
+        }
+      }
+    }
+    return bits;
+  }
+
+  /**
+   * Returns the names of the categories in the bit set, in the order they were registered.
+   */
+  public static Set<String> names(BitSet bits) {
+    var current = names;
+    var result = new LinkedHashSet<String>();
+    for (int id = bits.nextSetBit(0); id >= 0; id = bits.nextSetBit(id + 1)) {
+      result.add(current[id]);
+    }
+    return result;
+  }
+
+  private static int assign(String category) {
+    synchronized (IDS) {
+      var existing = IDS.get(category);
+      if (existing != null) {
+        return existing;
+      }
+      int id = names.length;
+      var grown = Arrays.copyOf(names, id + 1);
+      grown[id] = category;
+      // publish the name before the number, so anyone who can see the number can find the name
+      names = grown;
+      IDS.put(category, id);
+      return id;
+    }
+  }
+}
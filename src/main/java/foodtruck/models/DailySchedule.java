@@ -0,0 +1,101 @@
+package foodtruck.models;
+
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * An immutable snapshot of every truck's stops on one day.
+ */
+public class DailySchedule {
+  private final LocalDate date;
+  private final ImmutableMap<String, ImmutableList<TruckStop>> stopsByTruck;
+  private final ImmutableList<TruckStop> stops;
+  private final ImmutableSet<String> failedTrucks;
+
+  private DailySchedule(Builder builder) {
+    this.date = builder.date;
+    this.stopsByTruck = builder.stopsByTruck.build();
+    this.stops = stopsByTruck.values()
+        .stream()
+        .flatMap(List::stream)
+        .sorted(Comparator.comparing(TruckStop::getStartTime))
+        .collect(ImmutableList.toImmutableList());
+    this.failedTrucks = builder.failedTrucks.build();
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  public LocalDate getDate() {
+    return date;
+  }
+
+  /**
+   * Returns all the stops on the day, ordered by start time.
+   */
+  public List<TruckStop> getStops() {
+    return stops;
+  }
+
+  public List<TruckStop> getStops(String truckId) {
+    return stopsByTruck.getOrDefault(truckId, ImmutableList.of());
+  }
+
+  public Map<String, ImmutableList<TruckStop>> getStopsByTruck() {
+    return stopsByTruck;
+  }
+
+  /**
+   * Returns the ids of the trucks whose stops couldn't be computed, and so are missing from the schedule.
+   */
+  public Set<String> getFailedTrucks() {
+    return failedTrucks;
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this)
+        .add("date", date)
+        .add("trucks", stopsByTruck.size())
+        .add("stops", stops.size())
+        .add("failedTrucks", failedTrucks)
+        .toString();
+  }
+
+  public static class Builder {
+    private LocalDate date;
+    private final ImmutableMap.Builder<String, ImmutableList<TruckStop>> stopsByTruck = ImmutableMap.builder();
+    private final ImmutableSet.Builder<String> failedTrucks = ImmutableSet.builder();
+
+    private Builder() {
+    }
+
+    public Builder date(LocalDate date) {
+      this.date = date;
+      return this;
+    }
+
+    public Builder stops(String truckId, List<TruckStop> stops) {
+      stopsByTruck.put(truckId, ImmutableList.copyOf(stops));
+      return this;
+    }
+
+    public Builder failedTruck(String truckId) {
+      failedTrucks.add(truckId);
+      return this;
+    }
+
+    public DailySchedule build() {
+      return new DailySchedule(this);
+    }
+  }
+}
@@ -0,0 +1,107 @@
+package foodtruck.models;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import foodtruck.util.AhoCorasick;
+
+/**
+ * Checks a tweet against the {@link Truck#match} rules of a whole fleet at once.
+ *
+ * <p>The tweet is lower-cased once.  Rules that are plain words or alternations of plain words (like "popup" or
+ * "popup|private event") are compiled into a single {@link AhoCorasick} automaton, so all of them are decided by one
+ * pass over the text.  Only the rules that are real regular expressions are run individually, against the same
+ * lower-cased text.  Instances are immutable; build a new one when the fleet changes.
+ */
+public class FleetMatcher {
+
+  private static final Pattern METACHARACTERS = Pattern.compile("[\\\\^$.?*+()\\[\\]{}]");
+
+  private final Truck[] trucks;
+  // the literal rule for each truck, or null if the truck's own rule has to be run
+  private final Rule[] rules;
+  private final AhoCorasick literals;
+
+  private FleetMatcher(Collection<Truck> trucks) {
+    this.trucks = trucks.toArray(new Truck[0]);
+    this.rules = new Rule[this.trucks.length];
+    var literalIds = new HashMap<String, Integer>();
+    for (int i = 0; i < this.trucks.length; i++) {
+      var truck = this.trucks[i];
+      if (truck.getMatchOnlyIf() != null) {
+        rules[i] = rule(truck.getMatchOnlyIf(), true, literalIds);
+      } else if (truck.getDonotMatchIf() != null) {
+        rules[i] = rule(truck.getDonotMatchIf(), false, literalIds);
+      }
+    }
+    var patterns = new String[literalIds.size()];
+    literalIds.forEach((literal, id) -> patterns[id] = literal);
+    this.literals = AhoCorasick.of(Arrays.asList(patterns));
+  }
+
+  public static FleetMatcher of(Collection<Truck> trucks) {
+    return new FleetMatcher(trucks);
+  }
+
+  /**
+   * Returns the trucks whose rules accept the tweet, in the order the trucks were given.
+   */
+  public List<Truck> matching(String tweet) {
+    var lowerCase = tweet.toLowerCase();
+    var found = literals.patternCount() == 0 ? new BitSet() : literals.matches(lowerCase);
+    var matched = new ArrayList<Truck>();
+    for (int i = 0; i < trucks.length; i++) {
+      var rule = rules[i];
+      if (rule == null ? trucks[i].matchLowerCase(lowerCase) : rule.accepts(found)) {
+        matched.add(trucks[i]);
+      }
+    }
+    return matched;
+  }
+
+  private static Rule rule(Pattern pattern, boolean matchOnlyIf, Map<String, Integer> literalIds) {
+    var regex = pattern.pattern();
+    if (pattern.flags() != 0 || METACHARACTERS.matcher(regex)
+        .find()) {
+      return null;
+    }
+    var alternatives = regex.split("\\|", -1);
+    var ids = new int[alternatives.length];
+    for (int i = 0; i < alternatives.length; i++) {
+      if (alternatives[i].isEmpty()) {
+        // an empty alternative matches everywhere, so leave it to the regex engine
+        return null;
+      }
+      ids[i] = literalIds.computeIfAbsent(alternatives[i], literal -> literalIds.size());
+    }
+    return new Rule(matchOnlyIf, ids);
+  }
+
+  /**
+   * A rule made up only of literals, decided by whether the automaton found any of them.
+   */
+  private static class Rule {
+    private final boolean matchOnlyIf;
+    private final int[] literals;
+
+    private Rule(boolean matchOnlyIf, int[] literals) {
+      this.matchOnlyIf = matchOnlyIf;
+      this.literals = literals;
+    }
+
+    private boolean accepts(BitSet foundLiterals) {
+      for (int literal : literals) {
+        if (foundLiterals.get(literal)) {
+          return matchOnlyIf;
+        }
+      }
+      return !matchOnlyIf;
+    }
+  }
+}
@@ -2,6 +2,8 @@ package foodtruck.models;
 
 import java.io.Serializable;
 import java.util.Comparator;
+import java.util.Objects;
+import java.util.regex.Pattern;
 
 import javax.annotation.Nullable;
 
@@ -11,8 +13,10 @@ import com.google.common.base.MoreObjects;
 import com.google.common.base.Predicate;
 import com.google.common.base.Strings;
 import com.javadocmd.simplelatlng.LatLng;
-import com.javadocmd.simplelatlng.LatLngTool;
-import com.javadocmd.simplelatlng.util.LengthUnit;
+import com.javadocmd.simplelatlng.util.LatLngConfig;
+
+import foodtruck.geo.GeoMath;
+import foodtruck.geo.GeoPoint;
 
 /**
  * Latitude and Longitude.
@@ -26,6 +30,8 @@ public class Location implements Serializable {
   private static final String UNKNOWN = "UNKNOWN";
 
   private static final long serialVersionUID = 1L;
+  private static final Pattern ZIP_AND_COUNTRY = Pattern.compile(".*\\d{5}, USA");
+  private static final long HALF_CIRCLE_MICRO_DEGREES = LatLngConfig.doubleToLong(180);
   private double latitude;
   private double longitude;
   private String name;
@@ -54,6 +60,10 @@ public class Location implements Serializable {
   private @Nullable String city;
   private @Nullable String neighborhood;
   private String imageUrl;
+  private @Nullable Long key;
+  private transient @Nullable GeoPoint geoPoint;
+  // set once the instance is shared through the LocationInterner, after which the setters refuse to change it
+  private transient volatile boolean shared;
 
   // For serializable
   public Location() {
@@ -86,8 +96,18 @@ public class Location implements Serializable {
     blacklistedFromCalendarSearch = builder.blacklistedFromCalendarSearch;
     city = builder.city;
     neighborhood = builder.neighborhood;
+    imageUrl = builder.imageUrl;
     latitude = builder.lat;
     longitude = builder.lng;
+    key = builder.key instanceof Number ? ((Number) builder.key).longValue() : null;
+  }
+
+  /**
+   * Returns the datastore key of the location, or null if it hasn't been saved.
+   */
+  @Nullable
+  public Long getKey() {
+    return key;
   }
 
   @Nullable
@@ -153,6 +173,19 @@ public class Location implements Serializable {
     return new LatLng(latitude, longitude);
   }
 
+  /**
+   * Returns the coordinates with their trigonometry precomputed for distance calculations.  The point is cached and
+   * only recomputed if the coordinates change.
+   */
+  public GeoPoint geoPoint() {
+    GeoPoint point = geoPoint;
+    if (point == null || !point.isAt(latitude, longitude)) {
+      point = GeoPoint.of(latitude, longitude);
+      geoPoint = point;
+    }
+    return point;
+  }
+
   public double getLatitude() {
     return latitude;
   }
@@ -166,6 +199,7 @@ public class Location implements Serializable {
   }
 
   public void setUrl(@Nullable String url) {
+    checkMutable();
     this.url = url;
   }
 
@@ -174,70 +208,87 @@ public class Location implements Serializable {
   }
 
   public void setImageUrl(String imageUrl) {
+    checkMutable();
     this.imageUrl = imageUrl;
   }
 
   public void setEventSpecific(boolean eventSpecific) {
+    checkMutable();
     this.eventSpecific = eventSpecific;
   }
 
   public void setRadius(double radius) {
+    checkMutable();
     this.radius = radius;
   }
 
   public void setOwnedBy(@Nullable String ownedBy) {
+    checkMutable();
     this.ownedBy = ownedBy;
   }
 
   public void setCreatedBy(@Nullable String createdBy) {
+    checkMutable();
     this.createdBy = createdBy;
   }
 
   public void setBlacklistedFromCalendarSearch(boolean blacklistedFromCalendarSearch) {
+    checkMutable();
     this.blacklistedFromCalendarSearch = blacklistedFromCalendarSearch;
   }
 
   public void setLatitude(double latitude) {
+    checkMutable();
     this.latitude = latitude;
   }
 
   public void setLongitude(double longitude) {
+    checkMutable();
     this.longitude = longitude;
   }
 
   public void setJustResolved(boolean justResolved) {
+    checkMutable();
     this.justResolved = justResolved;
   }
 
   public void setTwitterHandle(@Nullable String twitterHandle) {
+    checkMutable();
     this.twitterHandle = twitterHandle;
   }
 
   public void setDesignatedStop(boolean designatedStop) {
+    checkMutable();
     this.designatedStop = designatedStop;
   }
 
   public void setHasBooze(boolean hasBooze) {
+    checkMutable();
     this.hasBooze = hasBooze;
   }
 
   public void setRadiateTo(int radiateTo) {
+    checkMutable();
     this.radiateTo = radiateTo;
   }
 
   public void setPhoneNumber(@Nullable String phoneNumber) {
+    checkMutable();
     this.phoneNumber = phoneNumber;
   }
 
   public void setFacebookUri(@Nullable String facebookUri) {
+    checkMutable();
     this.facebookUri = facebookUri;
   }
 
   public void setEventCalendarUrl(@Nullable String eventCalendarUrl) {
+    checkMutable();
     this.eventCalendarUrl = eventCalendarUrl;
   }
 
   public void setAlexaProvided(boolean alexaProvided) {
+    checkMutable();
     this.alexaProvided = alexaProvided;
   }
 
@@ -246,6 +297,19 @@ public class Location implements Serializable {
     return this.twitterHandle;
   }
 
+  /**
+   * Marks the location as shared, so it can no longer be changed through its setters.
+   */
+  void markShared() {
+    shared = true;
+  }
+
+  private void checkMutable() {
+    if (shared) {
+      throw new IllegalStateException("Location '" + name + "' is shared; change a copy made with Location.builder()");
+    }
+  }
+
   public Location wasJustResolved() {
     return Location.builder(this)
         .wasJustResolved(true)
@@ -327,9 +391,13 @@ public class Location implements Serializable {
 
   @Override
   public int hashCode() {
-    return getLatLng().hashCode();
+    return 31 * Long.hashCode(latitudeMicroDegrees()) + Long.hashCode(longitudeMicroDegrees());
   }
 
+  /**
+   * Two locations are equal if their coordinates are the same to the micro-degree, which is how {@link LatLng}
+   * compares them; this compares the coordinates directly rather than allocating a {@code LatLng} for each side.
+   */
   @Override
   public boolean equals(Object o) {
     if (o == this) {
@@ -338,8 +406,36 @@ public class Location implements Serializable {
       return false;
     }
     Location obj = (Location) o;
-    return obj.getLatLng()
-        .equals(getLatLng());
+    return obj.latitudeMicroDegrees() == latitudeMicroDegrees() &&
+        obj.longitudeMicroDegrees() == longitudeMicroDegrees();
+  }
+
+  /**
+   * Returns true if every field of the other location matches this one, i.e. one could stand in for the other.
+   */
+  boolean hasSameContentAs(Location other) {
+    return latitude == other.latitude && longitude == other.longitude && valid == other.valid &&
+        eventSpecific == other.eventSpecific && radius == other.radius && popular == other.popular &&
+        justResolved == other.justResolved && autocomplete == other.autocomplete &&
+        designatedStop == other.designatedStop && hasBooze == other.hasBooze && radiateTo == other.radiateTo &&
+        closed == other.closed && alexaProvided == other.alexaProvided &&
+        blacklistedFromCalendarSearch == other.blacklistedFromCalendarSearch && Objects.equals(name, other.name) &&
+        Objects.equals(description, other.description) && Objects.equals(url, other.url) &&
+        Objects.equals(alias, other.alias) && Objects.equals(twitterHandle, other.twitterHandle) &&
+        Objects.equals(ownedBy, other.ownedBy) && Objects.equals(phoneNumber, other.phoneNumber) &&
+        Objects.equals(email, other.email) && Objects.equals(facebookUri, other.facebookUri) &&
+        Objects.equals(eventCalendarUrl, other.eventCalendarUrl) && Objects.equals(createdBy, other.createdBy) &&
+        Objects.equals(city, other.city) && Objects.equals(neighborhood, other.neighborhood) &&
+        Objects.equals(imageUrl, other.imageUrl) && Objects.equals(key, other.key);
+  }
+
+  long latitudeMicroDegrees() {
+    return LatLngConfig.doubleToLong(Math.max(-90, Math.min(90, latitude)));
+  }
+
+  long longitudeMicroDegrees() {
+    return Math.floorMod(LatLngConfig.doubleToLong(longitude) + HALF_CIRCLE_MICRO_DEGREES,
+        2 * HALF_CIRCLE_MICRO_DEGREES) - HALF_CIRCLE_MICRO_DEGREES;
   }
 
   public Location withKey(Object key) {
@@ -347,12 +443,18 @@ public class Location implements Serializable {
         .build();
   }
 
+  /**
+   * Returns the radius, in miles, within which another location counts as this one.
+   */
   public double getRadius() {
     return radius;
   }
 
+  /**
+   * Returns the distance in miles; see {@link GeoMath} for how this compares to simplelatlng's distance.
+   */
   public double distanceFrom(Location mapCenter) {
-    return LatLngTool.distance(getLatLng(), mapCenter.getLatLng(), LengthUnit.MILE);
+    return GeoMath.distanceMiles(geoPoint(), mapCenter.geoPoint());
   }
 
   public ScalarDistanceRequest within(double distance) {
@@ -370,6 +472,9 @@ public class Location implements Serializable {
     return alias;
   }
 
+  /**
+   * Returns how far, in whole miles, this location's geofence reaches.
+   */
   public int getRadiateTo() {
     return radiateTo;
   }
@@ -379,7 +484,8 @@ public class Location implements Serializable {
     if (Strings.isNullOrEmpty(name)) {
       return UNKNOWN;
     }
-    if (shortened.matches(".*\\d{5}, USA")) {
+    if (ZIP_AND_COUNTRY.matcher(shortened)
+        .matches()) {
       shortened = shortened.substring(0, shortened.length() - 11);
     }
     if (shortened.endsWith(", Chicago, IL")) {
@@ -463,6 +569,7 @@ public class Location implements Serializable {
     private boolean blacklistedFromCalendarSearch;
     private String city;
     private String neighborhood;
+    private @Nullable String imageUrl;
 
     public Builder(Location location) {
       lat = location.getLatitude();
@@ -492,6 +599,8 @@ public class Location implements Serializable {
       blacklistedFromCalendarSearch = location.blacklistedFromCalendarSearch;
       city = location.city;
       neighborhood = location.neighborhood;
+      imageUrl = location.imageUrl;
+      key = location.key;
     }
 
     public Builder() {
@@ -507,6 +616,11 @@ public class Location implements Serializable {
       return this;
     }
 
+    public Builder imageUrl(@Nullable String imageUrl) {
+      this.imageUrl = imageUrl;
+      return this;
+    }
+
     public Builder blacklistedFromCalendarSearch(boolean blacklisted) {
       this.blacklistedFromCalendarSearch = blacklisted;
       return this;
@@ -572,6 +686,11 @@ public class Location implements Serializable {
       return this;
     }
 
+    public Builder eventSpecific(boolean eventSpecific) {
+      this.eventSpecific = eventSpecific;
+      return this;
+    }
+
     public Builder alias(@Nullable String alias) {
       this.alias = alias;
       return this;
@@ -647,8 +766,7 @@ public class Location implements Serializable {
     }
 
     public boolean milesOf(Location other) {
-      double actual = LatLngTool.distance(getLatLng(), other.getLatLng(), LengthUnit.MILE);
-      return actual < distance;
+      return GeoMath.withinMiles(geoPoint(), other.geoPoint(), distance);
     }
   }
 }
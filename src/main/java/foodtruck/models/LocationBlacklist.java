@@ -0,0 +1,155 @@
+package foodtruck.models;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+import com.google.common.base.Strings;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.collect.ImmutableList;
+
+import foodtruck.util.AhoCorasick;
+import foodtruck.util.LocationNames;
+
+/**
+ * A truck's {@link Truck#getBlacklistLocationNames() blacklisted location names}, compiled for fast checks.
+ *
+ * <p>Plain entries match a location name that {@link LocationNames#canonicalize canonicalizes} to the same thing, so
+ * "Clark &amp; Monroe" also blacklists "Monroe and Clark, Chicago, IL".  Entries with a "*" at either end match part
+ * of a name: "*airport*" anywhere in it, "navy pier*" at the start and "*plaza" at the end.  Plain entries are a hash
+ * lookup and the partial ones are decided together by one {@link AhoCorasick} pass over the name, so the cost of a
+ * check depends on the length of the name and not on the number of entries.
+ *
+ * <p>Blacklists are immutable, and compiled ones are cached by their entries so trucks with the same list share one.
+ */
+public class LocationBlacklist {
+
+  private static final String WILDCARD = "*";
+  private static final int ANYWHERE = 1;
+  private static final int AT_START = 2;
+  private static final int AT_END = 4;
+
+  private static final LocationBlacklist EMPTY = new LocationBlacklist(List.of());
+  private static final LoadingCache<List<String>, LocationBlacklist> CACHE = CacheBuilder.newBuilder()
+      .maximumSize(10_000)
+      .build(CacheLoader.from(LocationBlacklist::new));
+
+  private final Set<String> names = new HashSet<>();
+  private final AhoCorasick fragments;
+  // for each fragment, where in the name it has to be (ANYWHERE, AT_START and/or AT_END)
+  private final int[] positions;
+
+  private LocationBlacklist(List<String> entries) {
+    var fragmentIds = new HashMap<String, Integer>();
+    var fragmentPositions = new ArrayList<Integer>();
+    for (String entry : entries) {
+      if (Strings.isNullOrEmpty(entry) || entry.trim()
+          .equals(WILDCARD)) {
+        continue;
+      }
+      var trimmed = entry.trim();
+      boolean leading = trimmed.startsWith(WILDCARD), trailing = trimmed.endsWith(WILDCARD);
+      var key = LocationNames.canonicalize(trimmed.substring(leading ? 1 : 0,
+          trimmed.length() - (trailing ? 1 : 0)));
+      if (key.isEmpty()) {
+        continue;
+      }
+      if (!leading && !trailing) {
+        names.add(key);
+        continue;
+      }
+      int position = leading && trailing ? ANYWHERE : leading ? AT_END : AT_START;
+      int id = fragmentIds.computeIfAbsent(key, fragment -> {
+        fragmentPositions.add(0);
+        return fragmentIds.size();
+      });
+      fragmentPositions.set(id, fragmentPositions.get(id) | position);
+    }
+    var patterns = new String[fragmentIds.size()];
+    fragmentIds.forEach((fragment, id) -> patterns[id] = fragment);
+    this.fragments = AhoCorasick.of(List.of(patterns));
+    this.positions = fragmentPositions.stream()
+        .mapToInt(Integer::intValue)
+        .toArray();
+  }
+
+  /**
+   * Returns the compiled blacklist for the entries, reusing a cached one if the same entries were compiled before.
+   */
+  public static LocationBlacklist of(List<String> entries) {
+    if (entries == null || entries.isEmpty()) {
+      return EMPTY;
+    }
+    return CACHE.getUnchecked(entries.stream()
+        .filter(Objects::nonNull)
+        .collect(ImmutableList.toImmutableList()));
+  }
+
+  public boolean isEmpty() {
+    return names.isEmpty() && positions.length == 0;
+  }
+
+  public boolean isBlacklisted(Location location) {
+    return isBlacklisted(location.getName());
+  }
+
+  public boolean isBlacklisted(String locationName) {
+    if (Strings.isNullOrEmpty(locationName) || isEmpty()) {
+      return false;
+    }
+    var key = LocationNames.canonicalize(locationName);
+    if (names.contains(key)) {
+      return true;
+    }
+    if (positions.length == 0) {
+      return false;
+    }
+    boolean[] found = new boolean[1];
+    fragments.scan(key, (fragment, start, end) -> {
+      int position = positions[fragment];
+      if ((position & ANYWHERE) != 0 || ((position & AT_START) != 0 && start == 0) ||
+          ((position & AT_END) != 0 && end == key.length())) {
+        found[0] = true;
+      }
+    });
+    return found[0];
+  }
+
+  /**
+   * Returns the location names that aren't blacklisted, in their original order.
+   */
+  public List<String> filterNames(Collection<String> locationNames) {
+    if (isEmpty()) {
+      return ImmutableList.copyOf(locationNames);
+    }
+    var allowed = ImmutableList.<String>builder();
+    for (String name : locationNames) {
+      if (!isBlacklisted(name)) {
+        allowed.add(name);
+      }
+    }
+    return allowed.build();
+  }
+
+  /**
+   * Returns the locations that aren't blacklisted, in their original order.
+   */
+  public List<Location> filter(Collection<Location> locations) {
+    if (isEmpty()) {
+      return ImmutableList.copyOf(locations);
+    }
+    var allowed = ImmutableList.<Location>builder();
+    for (Location location : locations) {
+      if (!isBlacklisted(location)) {
+        allowed.add(location);
+      }
+    }
+    return allowed.build();
+  }
+}
@@ -0,0 +1,77 @@
+package foodtruck.models;
+
+import java.util.Objects;
+import java.util.concurrent.ConcurrentMap;
+
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * A pool of canonical {@link Location} instances, keyed by coordinates (to the micro-degree) and name, so the many
+ * stops made at the same place can share one location instead of each holding a copy.
+ *
+ * <p>A location is only swapped for the pooled instance when every field matches; if a location at the same place
+ * and with the same name has changed, the newer one becomes canonical.  Pooled locations are held weakly, so
+ * locations nothing refers to any more drop out of the pool.  Since interned locations are shared, their setters
+ * throw {@link IllegalStateException}; use {@link Location#builder(Location)} to make a modified copy.
+ */
+public class LocationInterner {
+
+  private static final LocationInterner SHARED = new LocationInterner();
+
+  private final ConcurrentMap<Key, Location> pool = CacheBuilder.newBuilder()
+      .weakValues()
+      .<Key, Location>build()
+      .asMap();
+
+  /**
+   * Returns the interner used when deserializing locations from JSON.
+   */
+  public static LocationInterner shared() {
+    return SHARED;
+  }
+
+  /**
+   * Returns the canonical instance for the location, which is the location itself if there isn't one yet.
+   */
+  public Location intern(Location location) {
+    if (location == null) {
+      return null;
+    }
+    var canonical = pool.compute(new Key(location),
+        (key, existing) -> existing != null && existing.hasSameContentAs(location) ? existing : location);
+    canonical.markShared();
+    return canonical;
+  }
+
+  public int size() {
+    return pool.size();
+  }
+
+  private static final class Key {
+    private final long latitude;
+    private final long longitude;
+    private final String name;
+
+    private Key(Location location) {
+      this.latitude = location.latitudeMicroDegrees();
+      this.longitude = location.longitudeMicroDegrees();
+      this.name = location.getName();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (o == this) {
+        return true;
+      } else if (!(o instanceof Key)) {
+        return false;
+      }
+      Key key = (Key) o;
+      return latitude == key.latitude && longitude == key.longitude && Objects.equals(name, key.name);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(latitude, longitude, name);
+    }
+  }
+}
@@ -1,12 +1,12 @@
 package foodtruck.models;
 
 import java.io.Serializable;
+import java.util.BitSet;
 import java.util.Collections;
 import java.util.List;
 import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
-import java.util.stream.Collectors;
 
 import javax.annotation.Nullable;
 
@@ -18,6 +18,8 @@ import com.google.common.base.MoreObjects;
 import com.google.common.base.Objects;
 import com.google.common.base.Strings;
 
+import foodtruck.util.Patterns;
+
 /**
  * Static information about a food truck.
  * @author aviolette@gmail.com
@@ -28,6 +30,9 @@ import com.google.common.base.Strings;
 public class Truck implements Serializable {
 
   private static final Joiner BLACKLIST_JOINER = Joiner.on("; ");
+  // categories used internally that aren't shown to the public
+  private static final BitSet NON_PUBLIC_CATEGORIES = CategoryRegistry.bits(
+      List.of("Lunch", "HasStore", "1HRStops", "MorningSquatter", "AssumeNoTimeEqualsLunch", "Chicago", "Burbs"));
   private String id;
   private String name;
   private String twitterHandle;
@@ -58,6 +63,9 @@ public class Truck implements Serializable {
   private String backgroundImageLarge;
   private @Nullable String menuUrl;
   private List<String> blacklistLocationNames;
+  private transient volatile LocationBlacklist locationBlacklist;
+  private transient volatile BitSet categoryBits;
+  private transient volatile BitSet publicCategoryBits;
   private @Nullable String phoneticMarkup;
   private List<String> phoneticAliases;
   private @Nullable String twitterToken;
@@ -183,7 +191,7 @@ public class Truck implements Serializable {
   }
 
   public boolean isMatchesMorningStops() {
-    return categories.contains("Breakfast");
+    return hasCategory(CategoryRegistry.BREAKFAST);
   }
 
   public boolean isPostAtNewStop() {
@@ -237,6 +245,19 @@ public class Truck implements Serializable {
     return blacklistLocationNames;
   }
 
+  /**
+   * Returns the blacklisted location names compiled for fast checks.  It is compiled the first time it's asked for.
+   */
+  @JsonIgnore
+  public LocationBlacklist getLocationBlacklist() {
+    var blacklist = locationBlacklist;
+    if (blacklist == null) {
+      blacklist = LocationBlacklist.of(blacklistLocationNames);
+      locationBlacklist = blacklist;
+    }
+    return blacklist;
+  }
+
   public String getBlacklistLocationsList() {
     return BLACKLIST_JOINER.join(blacklistLocationNames);
   }
@@ -290,7 +311,7 @@ public class Truck implements Serializable {
   }
 
   public boolean isPopupVendor() {
-    return categories.contains("Popup");
+    return hasCategory(CategoryRegistry.POPUP);
   }
 
   @Nullable
@@ -313,6 +334,30 @@ public class Truck implements Serializable {
     return categories;
   }
 
+  public boolean hasCategory(String category) {
+    int id = CategoryRegistry.find(category);
+    return id >= 0 && hasCategory(id);
+  }
+
+  /**
+   * Tests for a category by its {@link CategoryRegistry} number.
+   */
+  public boolean hasCategory(int category) {
+    return categoryBits().get(category);
+  }
+
+  /**
+   * Returns the truck's categories as {@link CategoryRegistry} numbers.  The set is shared and must not be changed.
+   */
+  BitSet categoryBits() {
+    var bits = categoryBits;
+    if (bits == null) {
+      bits = CategoryRegistry.bits(categories);
+      categoryBits = bits;
+    }
+    return bits;
+  }
+
   public Set<String> getBeaconnaiseEmails() {
     return beaconnaiseEmails;
   }
@@ -452,14 +497,22 @@ public class Truck implements Serializable {
 
 
   public boolean match(String tweet) {
+    return matchLowerCase(tweet.toLowerCase());
+  }
+
+  /**
+   * Same as {@link #match} for text that has already been lower-cased, so callers checking one tweet against many
+   * trucks only lower-case it once.
+   */
+  boolean matchLowerCase(String lowerCaseTweet) {
     Pattern p = getMatchOnlyIf();
     if (p != null) {
-      Matcher m = p.matcher(tweet.toLowerCase());
+      Matcher m = p.matcher(lowerCaseTweet);
       return m.find();
     }
     p = getDonotMatchIf();
     if (p != null) {
-      Matcher m = p.matcher(tweet.toLowerCase());
+      Matcher m = p.matcher(lowerCaseTweet);
       return !m.find();
     }
     return true;
@@ -469,12 +522,17 @@ public class Truck implements Serializable {
     return publicCategories();
   }
 
+  /**
+   * Returns a new set of the truck's categories, minus the ones only used internally.
+   */
   public Set<String> publicCategories() {
-    return categories.stream()
-        .filter(input -> !(input.equals("Lunch") || input.equals("HasStore") || input.equals("1HRStops") ||
-            input.equals("MorningSquatter") || input.equals("AssumeNoTimeEqualsLunch") || input.equals("Chicago") ||
-            input.equals("Burbs")))
-        .collect(Collectors.toSet());
+    var bits = publicCategoryBits;
+    if (bits == null) {
+      bits = (BitSet) categoryBits().clone();
+      bits.andNot(NON_PUBLIC_CATEGORIES);
+      publicCategoryBits = bits;
+    }
+    return CategoryRegistry.names(bits);
   }
 
   public int getFleetSize() {
@@ -700,7 +758,7 @@ public class Truck implements Serializable {
 
     public Builder matchOnlyIf(@Nullable String regex) {
       if (!Strings.isNullOrEmpty(regex)) {
-        this.matchOnlyIf = Pattern.compile(regex);
+        this.matchOnlyIf = Patterns.compile(regex);
       } else {
         this.matchOnlyIf = null;
       }
@@ -774,7 +832,7 @@ public class Truck implements Serializable {
 
     public Builder donotMatchIf(@Nullable String regex) {
       if (!Strings.isNullOrEmpty(regex)) {
-        this.donotMatchIf = Pattern.compile(regex);
+        this.donotMatchIf = Patterns.compile(regex);
       } else {
         this.donotMatchIf = null;
       }
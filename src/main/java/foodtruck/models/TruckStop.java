@@ -373,8 +373,7 @@ public class TruckStop implements Serializable {
     }
 
     public boolean hasCategory(String category) {
-      return (truck != null && truck.getCategories()
-          .contains(category));
+      return truck != null && truck.hasCategory(category);
     }
 
   }
@@ -1,7 +1,34 @@
 package foodtruck.services;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 public interface AddressExtractor {
   List<String> parse(String text, String truckId);
+
+  /**
+   * Non-blocking version of {@link #parse(String, String)}.  The default implementation runs the blocking call on the
+   * common pool.
+   */
+  default CompletableFuture<List<String>> parseAsync(String text, String truckId) {
+    return CompletableFuture.supplyAsync(() -> parse(text, truckId));
+  }
+
+  /**
+   * Extracts addresses for each of the queries, returning one result per query in the same order.  A failure to parse
+   * one query is reported in its result and doesn't affect the others.  The default implementation parses each query
+   * in turn.
+   */
+  default List<AddressResult> parseAll(List<AddressQuery> queries) {
+    var results = new ArrayList<AddressResult>(queries.size());
+    for (AddressQuery query : queries) {
+      try {
+        results.add(AddressResult.success(query, parse(query.getText(), query.getTruckId())));
+      } catch (RuntimeException e) {
+        results.add(AddressResult.failure(query, e));
+      }
+    }
+    return results;
+  }
 }
@@ -0,0 +1,50 @@
+package foodtruck.services;
+
+import java.util.Objects;
+
+import com.google.common.base.MoreObjects;
+
+/**
+ * A piece of text (usually a tweet) to extract addresses from, along with the truck that posted it.
+ */
+public class AddressQuery {
+  private final String text;
+  private final String truckId;
+
+  public AddressQuery(String text, String truckId) {
+    this.text = text;
+    this.truckId = truckId;
+  }
+
+  public String getText() {
+    return text;
+  }
+
+  public String getTruckId() {
+    return truckId;
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(text, truckId);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (o == this) {
+      return true;
+    } else if (!(o instanceof AddressQuery)) {
+      return false;
+    }
+    AddressQuery query = (AddressQuery) o;
+    return text.equals(query.text) && truckId.equals(query.truckId);
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this)
+        .add("text", text)
+        .add("truckId", truckId)
+        .toString();
+  }
+}
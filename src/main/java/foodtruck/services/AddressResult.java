@@ -0,0 +1,57 @@
+package foodtruck.services;
+
+import java.util.List;
+
+import javax.annotation.Nullable;
+
+import com.google.common.base.MoreObjects;
+
+/**
+ * The outcome of extracting addresses for a single {@link AddressQuery} in a batch.  Either the addresses or the error
+ * is set, never both.
+ */
+public class AddressResult {
+  private final AddressQuery query;
+  private final List<String> addresses;
+  private final @Nullable RuntimeException error;
+
+  private AddressResult(AddressQuery query, List<String> addresses, @Nullable RuntimeException error) {
+    this.query = query;
+    this.addresses = addresses;
+    this.error = error;
+  }
+
+  public static AddressResult success(AddressQuery query, List<String> addresses) {
+    return new AddressResult(query, List.copyOf(addresses), null);
+  }
+
+  public static AddressResult failure(AddressQuery query, RuntimeException error) {
+    return new AddressResult(query, List.of(), error);
+  }
+
+  public AddressQuery getQuery() {
+    return query;
+  }
+
+  public List<String> getAddresses() {
+    return addresses;
+  }
+
+  @Nullable
+  public RuntimeException getError() {
+    return error;
+  }
+
+  public boolean isSuccess() {
+    return error == null;
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this)
+        .add("query", query)
+        .add("addresses", addresses)
+        .add("error", error)
+        .toString();
+  }
+}
@@ -0,0 +1,171 @@
+package foodtruck.services;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import javax.annotation.Nullable;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+
+import foodtruck.models.Location;
+import foodtruck.util.LocationNames;
+
+/**
+ * A {@link GeoLocator} decorator that caches results by normalized location name.  Results are kept in a bounded
+ * in-memory tier and, optionally, in a {@link GeoCacheFile} so they survive restarts.  Names that don't resolve to
+ * anything are cached too, with their own (usually shorter) expiry.
+ */
+public class CachingGeoLocator implements GeoLocator {
+
+  private final GeoLocator delegate;
+  private final Cache<String, Entry> memory;
+  private final @Nullable GeoCacheFile file;
+  private final Duration ttl;
+  private final Duration notFoundTtl;
+  private final Clock clock;
+
+  private CachingGeoLocator(Builder builder) {
+    this.delegate = builder.delegate;
+    this.ttl = builder.ttl;
+    this.notFoundTtl = builder.notFoundTtl;
+    this.clock = builder.clock;
+    this.file = builder.file;
+    this.memory = CacheBuilder.newBuilder()
+        .maximumSize(builder.maximumSize)
+        .expireAfterWrite(ttl.compareTo(notFoundTtl) > 0 ? ttl : notFoundTtl)
+        .recordStats()
+        .build();
+  }
+
+  public static Builder builder(GeoLocator delegate) {
+    return new Builder(delegate);
+  }
+
+  @Override
+  public Optional<Location> broadSearch(String name) {
+    var key = LocationNames.normalize(name);
+    var entry = lookup(key);
+    if (entry != null) {
+      return entry.getLocation();
+    }
+    return store(key, delegate.broadSearch(name));
+  }
+
+  @Override
+  public CompletableFuture<Optional<Location>> broadSearchAsync(String name) {
+    var key = LocationNames.normalize(name);
+    var entry = lookup(key);
+    if (entry != null) {
+      return CompletableFuture.completedFuture(entry.getLocation());
+    }
+    return delegate.broadSearchAsync(name)
+        .thenApply(location -> store(key, location));
+  }
+
+  public CacheStats stats() {
+    return memory.stats();
+  }
+
+  @Nullable
+  private Entry lookup(String key) {
+    long now = clock.millis();
+    var entry = memory.getIfPresent(key);
+    if (entry != null && !entry.isExpired(now)) {
+      return entry;
+    }
+    if (file != null) {
+      entry = file.get(key);
+      if (entry != null && !entry.isExpired(now)) {
+        memory.put(key, entry);
+        return entry;
+      }
+    }
+    return null;
+  }
+
+  private Optional<Location> store(String key, Optional<Location> location) {
+    var expiry = location.isPresent() ? ttl : notFoundTtl;
+    var entry = new Entry(location.orElse(null), clock.millis() + expiry.toMillis());
+    memory.put(key, entry);
+    if (file != null) {
+      file.put(key, entry);
+    }
+    return location;
+  }
+
+  /**
+   * A cached lookup result.  A null location means the name did not resolve.
+   */
+  static class Entry {
+    private final @Nullable Location location;
+    private final long expiresAt;
+
+    Entry(@Nullable Location location, long expiresAt) {
+      this.location = location;
+      this.expiresAt = expiresAt;
+    }
+
+    Optional<Location> getLocation() {
+      return Optional.ofNullable(location);
+    }
+
+    @Nullable
+    Location location() {
+      return location;
+    }
+
+    long expiresAt() {
+      return expiresAt;
+    }
+
+    boolean isExpired(long now) {
+      return now >= expiresAt;
+    }
+  }
+
+  public static class Builder {
+    private final GeoLocator delegate;
+    private Duration ttl = Duration.ofDays(7);
+    private Duration notFoundTtl = Duration.ofHours(1);
+    private long maximumSize = 5000;
+    private @Nullable GeoCacheFile file;
+    private Clock clock = Clock.systemUTC();
+
+    private Builder(GeoLocator delegate) {
+      this.delegate = delegate;
+    }
+
+    public Builder ttl(Duration ttl) {
+      this.ttl = ttl;
+      return this;
+    }
+
+    public Builder notFoundTtl(Duration notFoundTtl) {
+      this.notFoundTtl = notFoundTtl;
+      return this;
+    }
+
+    public Builder maximumSize(long maximumSize) {
+      this.maximumSize = maximumSize;
+      return this;
+    }
+
+    public Builder file(@Nullable GeoCacheFile file) {
+      this.file = file;
+      return this;
+    }
+
+    public Builder clock(Clock clock) {
+      this.clock = clock;
+      return this;
+    }
+
+    public CachingGeoLocator build() {
+      return new CachingGeoLocator(this);
+    }
+  }
+}
@@ -0,0 +1,273 @@
+package foodtruck.services;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.LoadingCache;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+import foodtruck.models.Truck;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * A {@link TruckService} decorator that caches truck lookups.  Each kind of lookup has its own time-to-live; entries
+ * older than the refresh interval are still served while they are reloaded in the background.  Trucks that are not
+ * found by {@link #findById(String)} are remembered separately (with their own, usually shorter, time-to-live) so
+ * repeated lookups of unknown ids don't go to the network either.
+ */
+public class CachingTruckService extends ForwardingTruckService {
+
+  private enum Filter {
+    GOOGLE_CALENDAR, ICAL, ALL
+  }
+
+  private final LoadingCache<String, Optional<Truck>> trucksById;
+  private final Cache<String, Boolean> missingTrucks;
+  private final LoadingCache<String, List<Truck>> trucksByTwitterHandle;
+  private final LoadingCache<Filter, List<Truck>> trucksByFilter;
+
+  private CachingTruckService(Builder builder) {
+    super(builder.delegate);
+    TruckService delegate = builder.delegate;
+    this.trucksById = builder.newCache(builder.truckTtl, builder.maximumSize, delegate::findById);
+    this.missingTrucks = CacheBuilder.newBuilder()
+        .expireAfterWrite(builder.notFoundTtl)
+        .maximumSize(builder.maximumSize)
+        .recordStats()
+        .build();
+    this.trucksByTwitterHandle = builder.newCache(builder.twitterHandleTtl, builder.maximumSize,
+        handle -> ImmutableList.copyOf(delegate.findByTwitterHandle(handle)));
+    this.trucksByFilter = builder.newCache(builder.filterTtl, Filter.values().length, filter -> {
+      switch (filter) {
+        case GOOGLE_CALENDAR:
+          return ImmutableList.copyOf(delegate.findTrucksWithGoogleCalendars());
+        case ICAL:
+          return ImmutableList.copyOf(delegate.findTrucksWithICalCalendars());
+        case ALL:
+          return ImmutableList.copyOf(delegate.findAll());
+        default:
+          throw new IllegalArgumentException("Unknown filter: " + filter);
+      }
+    });
+  }
+
+  public static Builder builder(TruckService delegate) {
+    return new Builder(delegate);
+  }
+
+  @Override
+  public List<Truck> findTrucksWithGoogleCalendars() {
+    return get(trucksByFilter, Filter.GOOGLE_CALENDAR);
+  }
+
+  @Override
+  public List<Truck> findTrucksWithICalCalendars() {
+    return get(trucksByFilter, Filter.ICAL);
+  }
+
+  @Override
+  public List<Truck> findAll() {
+    return get(trucksByFilter, Filter.ALL);
+  }
+
+  @Override
+  public List<Truck> findByTwitterHandle(String twitterHandle) {
+    return get(trucksByTwitterHandle, twitterHandle);
+  }
+
+  @Override
+  public Optional<Truck> findById(String truckId) {
+    if (missingTrucks.getIfPresent(truckId) != null) {
+      return Optional.empty();
+    }
+    return cacheTruck(truckId, get(trucksById, truckId));
+  }
+
+  @Override
+  public Stream<Truck> streamTrucksWithGoogleCalendars() {
+    return findTrucksWithGoogleCalendars().stream();
+  }
+
+  @Override
+  public Stream<Truck> streamTrucksWithICalCalendars() {
+    return findTrucksWithICalCalendars().stream();
+  }
+
+  @Override
+  public CompletableFuture<List<Truck>> findTrucksWithGoogleCalendarsAsync() {
+    return getAsync(Filter.GOOGLE_CALENDAR, delegate()::findTrucksWithGoogleCalendarsAsync);
+  }
+
+  @Override
+  public CompletableFuture<List<Truck>> findTrucksWithICalCalendarsAsync() {
+    return getAsync(Filter.ICAL, delegate()::findTrucksWithICalCalendarsAsync);
+  }
+
+  @Override
+  public CompletableFuture<List<Truck>> findByTwitterHandleAsync(String twitterHandle) {
+    var trucks = trucksByTwitterHandle.getIfPresent(twitterHandle);
+    if (trucks != null) {
+      return CompletableFuture.completedFuture(trucks);
+    }
+    return delegate().findByTwitterHandleAsync(twitterHandle)
+        .thenApply(result -> {
+          List<Truck> copy = ImmutableList.copyOf(result);
+          trucksByTwitterHandle.put(twitterHandle, copy);
+          return copy;
+        });
+  }
+
+  @Override
+  public CompletableFuture<Optional<Truck>> findByIdAsync(String truckId) {
+    if (missingTrucks.getIfPresent(truckId) != null) {
+      return CompletableFuture.completedFuture(Optional.empty());
+    }
+    var truck = trucksById.getIfPresent(truckId);
+    if (truck != null) {
+      return CompletableFuture.completedFuture(cacheTruck(truckId, truck));
+    }
+    return delegate().findByIdAsync(truckId)
+        .thenApply(result -> {
+          if (result.isPresent()) {
+            trucksById.put(truckId, result);
+          }
+          return cacheTruck(truckId, result);
+        });
+  }
+
+  /**
+   * Returns hit/miss statistics for each of the underlying caches.
+   */
+  public Map<String, CacheStats> stats() {
+    return ImmutableMap.of("trucksById", trucksById.stats(), "missingTrucks", missingTrucks.stats(),
+        "trucksByTwitterHandle", trucksByTwitterHandle.stats(), "trucksByFilter", trucksByFilter.stats());
+  }
+
+  /**
+   * Discards all cached entries.
+   */
+  public void invalidateAll() {
+    trucksById.invalidateAll();
+    missingTrucks.invalidateAll();
+    trucksByTwitterHandle.invalidateAll();
+    trucksByFilter.invalidateAll();
+  }
+
+  private CompletableFuture<List<Truck>> getAsync(Filter filter, Supplier<CompletableFuture<List<Truck>>> load) {
+    var trucks = trucksByFilter.getIfPresent(filter);
+    if (trucks != null) {
+      return CompletableFuture.completedFuture(trucks);
+    }
+    return load.get()
+        .thenApply(result -> {
+          List<Truck> copy = ImmutableList.copyOf(result);
+          trucksByFilter.put(filter, copy);
+          return copy;
+        });
+  }
+
+  private Optional<Truck> cacheTruck(String truckId, Optional<Truck> truck) {
+    if (truck.isEmpty()) {
+      trucksById.invalidate(truckId);
+      missingTrucks.put(truckId, Boolean.TRUE);
+    }
+    return truck;
+  }
+
+  private static <K, V> V get(LoadingCache<K, V> cache, K key) {
+    try {
+      return cache.getUnchecked(key);
+    } catch (UncheckedExecutionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw e;
+    }
+  }
+
+  public static class Builder {
+    private final TruckService delegate;
+    private Duration truckTtl = Duration.ofHours(1);
+    private Duration twitterHandleTtl = Duration.ofHours(1);
+    private Duration filterTtl = Duration.ofMinutes(15);
+    private Duration notFoundTtl = Duration.ofMinutes(5);
+    private double refreshFraction = 0.5;
+    private long maximumSize = 1000;
+    private Executor executor = ForkJoinPool.commonPool();
+
+    private Builder(TruckService delegate) {
+      this.delegate = delegate;
+    }
+
+    public Builder truckTtl(Duration truckTtl) {
+      this.truckTtl = truckTtl;
+      return this;
+    }
+
+    public Builder twitterHandleTtl(Duration twitterHandleTtl) {
+      this.twitterHandleTtl = twitterHandleTtl;
+      return this;
+    }
+
+    public Builder filterTtl(Duration filterTtl) {
+      this.filterTtl = filterTtl;
+      return this;
+    }
+
+    public Builder notFoundTtl(Duration notFoundTtl) {
+      this.notFoundTtl = notFoundTtl;
+      return this;
+    }
+
+    /**
+     * Sets how far into an entry's time-to-live (more than 0, up to 1) it becomes eligible for a background refresh.
+     * A value of 1 disables stale-while-revalidate.
+     */
+    public Builder refreshFraction(double refreshFraction) {
+      checkArgument(refreshFraction > 0 && refreshFraction <= 1, "refreshFraction must be in (0, 1]: %s",
+          refreshFraction);
+      this.refreshFraction = refreshFraction;
+      return this;
+    }
+
+    public Builder maximumSize(long maximumSize) {
+      this.maximumSize = maximumSize;
+      return this;
+    }
+
+    public Builder executor(Executor executor) {
+      this.executor = executor;
+      return this;
+    }
+
+    public CachingTruckService build() {
+      return new CachingTruckService(this);
+    }
+
+    private <K, V> LoadingCache<K, V> newCache(Duration ttl, long size, Function<K, V> loader) {
+      var builder = CacheBuilder.newBuilder()
+          .expireAfterWrite(ttl)
+          .maximumSize(size)
+          .recordStats();
+      if (refreshFraction < 1) {
+        builder.refreshAfterWrite(Duration.ofMillis(Math.max(1, (long) (ttl.toMillis() * refreshFraction))));
+      }
+      return builder.build(CacheLoader.asyncReloading(CacheLoader.from(loader::apply), executor));
+    }
+  }
+}
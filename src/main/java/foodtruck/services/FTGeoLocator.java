@@ -1,50 +1,72 @@
 package foodtruck.services;
 
-import java.io.IOException;
-import java.net.URI;
 import java.net.URLEncoder;
-import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
 import java.nio.charset.Charset;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import foodtruck.json.Json;
 import foodtruck.models.Location;
+import foodtruck.util.ServiceException;
+import foodtruck.util.SingleFlight;
 
 @SuppressWarnings({"unused", "DuplicatedCode"})
 public class FTGeoLocator implements GeoLocator {
 
   private static final Logger log = Logger.getLogger(FTGeoLocator.class.getName());
+  private final HttpTransport transport;
+  private final ObjectMapper mapper;
+  private final SingleFlight<String, Optional<Location>> searches = new SingleFlight<>();
+
+  public FTGeoLocator() {
+    this(HttpTransport.shared());
+  }
+
+  public FTGeoLocator(HttpTransport transport) {
+    this.transport = transport;
+    this.mapper = Json.provideObjectMapper();
+  }
 
   @Override
   public Optional<Location> broadSearch(String name) {
-    var client = HttpClient.newHttpClient();
+    return searches.execute(name, () -> transport.send(searchRequest(name), this::readLocation));
+  }
+
+  @Override
+  public CompletableFuture<Optional<Location>> broadSearchAsync(String name) {
+    return searches.executeAsync(name, () -> transport.sendAsync(searchRequest(name), this::readLocation));
+  }
+
+  private HttpRequest searchRequest(String name) {
+    String filter = URLEncoder.encode(name, Charset.defaultCharset());
+    return transport.newApiRequest("/services/v2/locations?name=" + filter)
+        .header("Accept", "application/json")
+        .GET()
+        .build();
+  }
+
+  private Optional<Location> readLocation(HttpResponse<String> documentResponse) {
+    if (documentResponse.statusCode() >= 400) {
+      log.log(Level.SEVERE, "Response code: " + documentResponse.statusCode());
+      log.log(Level.SEVERE, documentResponse.body());
+      throw new ServiceException("Could not connect to geolocator", documentResponse.statusCode());
+    }
     try {
-      String filter = URLEncoder.encode(name, Charset.defaultCharset());
-      var request = java.net.http.HttpRequest.newBuilder()
-          .uri(URI.create("https://www.chicagofoodtruckfinder.com/services/v2/locations?name=" + filter))
-          .header("Accept", "application/json")
-          .header("x-ftf-secret", System.getenv().get("FOODTRUCK_API_SECRET"))
-          .GET()
-          .build();
-      var documentResponse = client.send(request, java.net.http.HttpResponse.BodyHandlers.ofString());
-      if (documentResponse.statusCode() >= 400) {
-        log.log(Level.SEVERE, "Response code: " + documentResponse.statusCode());
-        log.log(Level.SEVERE, documentResponse.body());
-        throw new RuntimeException("Could not connect to geolocator");
-      }
-      ObjectMapper mapper = Json.provideObjectMapper();
       var items = mapper.readValue(documentResponse.body(), Location[].class);
       if (items.length == 0) {
         return Optional.empty();
       }
       return Optional.of(items[0]);
-    } catch (IOException | InterruptedException e) {
+    } catch (JsonProcessingException e) {
       log.log(Level.SEVERE, e.getMessage(), e);
-      throw new RuntimeException(e);
+      throw new ServiceException(e);
     }
   }
 }
@@ -0,0 +1,196 @@
+package foodtruck.services;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+import foodtruck.models.DailySchedule;
+import foodtruck.models.Truck;
+import foodtruck.models.TruckStop;
+import foodtruck.util.ServiceException;
+
+/**
+ * Computes the whole fleet's stops for a day in parallel.  The trucks are split in half recursively on a
+ * {@link ForkJoinPool} until each piece is small enough to look up directly, and the per-truck results are merged
+ * into one {@link DailySchedule}.  A truck whose lookup fails is logged and reported in
+ * {@link DailySchedule#getFailedTrucks()} rather than failing the whole schedule; trucks without an id are skipped.
+ * Lookups usually block on the network, so they run as {@link ForkJoinPool.ManagedBlocker}s and the pool can add
+ * threads to keep its parallelism while they wait.
+ *
+ * <p>Unless a pool is supplied, the service creates its own and shuts it down when it's {@link #close() closed}.
+ */
+public class FleetScheduleService implements AutoCloseable {
+
+  private static final Logger log = Logger.getLogger(FleetScheduleService.class.getName());
+
+  private final TruckStopService stopService;
+  private final ForkJoinPool pool;
+  private final boolean ownsPool;
+  private final int trucksPerTask;
+
+  private FleetScheduleService(Builder builder) {
+    this.stopService = builder.stopService;
+    this.ownsPool = builder.pool == null;
+    this.pool = ownsPool ? new ForkJoinPool(builder.parallelism) : builder.pool;
+    this.trucksPerTask = builder.trucksPerTask;
+  }
+
+  public static Builder builder(TruckStopService stopService) {
+    return new Builder(stopService);
+  }
+
+  /**
+   * Returns the schedule of the trucks on the specified date.
+   */
+  public DailySchedule scheduleFor(Collection<Truck> trucks, LocalDate date) {
+    var identified = trucks.stream()
+        .filter(truck -> truck != null && truck.getId() != null)
+        .collect(Collectors.toList());
+    if (identified.size() < trucks.size()) {
+      log.log(Level.WARNING, "Skipping {0} trucks without an id", trucks.size() - identified.size());
+    }
+    var result = pool.invoke(new ScheduleTask(identified, date));
+    var schedule = DailySchedule.builder()
+        .date(date);
+    result.stops.forEach(schedule::stops);
+    result.failed.forEach(schedule::failedTruck);
+    return schedule.build();
+  }
+
+  @Override
+  public void close() {
+    if (ownsPool) {
+      pool.shutdown();
+    }
+  }
+
+  private static class PartialSchedule {
+    private final Map<String, List<TruckStop>> stops = new LinkedHashMap<>();
+    private final List<String> failed = new ArrayList<>();
+
+    private PartialSchedule merge(PartialSchedule other) {
+      stops.putAll(other.stops);
+      failed.addAll(other.failed);
+      return this;
+    }
+  }
+
+  private List<TruckStop> findDuring(String truckId, LocalDate date) {
+    var lookup = new Lookup(truckId, date);
+    try {
+      ForkJoinPool.managedBlock(lookup);
+    } catch (InterruptedException e) {
+      Thread.currentThread()
+          .interrupt();
+      throw new ServiceException("Interrupted while computing schedule for " + truckId, e);
+    }
+    return lookup.stops;
+  }
+
+  /**
+   * One truck's lookup, run so that the pool knows the worker is blocked.
+   */
+  private class Lookup implements ForkJoinPool.ManagedBlocker {
+    private final String truckId;
+    private final LocalDate date;
+    private List<TruckStop> stops;
+
+    private Lookup(String truckId, LocalDate date) {
+      this.truckId = truckId;
+      this.date = date;
+    }
+
+    @Override
+    public boolean block() {
+      stops = stopService.findDuring(truckId, date);
+      return true;
+    }
+
+    @Override
+    public boolean isReleasable() {
+      return stops != null;
+    }
+  }
+
+  private class ScheduleTask extends RecursiveTask<PartialSchedule> {
+    private final List<Truck> trucks;
+    private final LocalDate date;
+
+    private ScheduleTask(List<Truck> trucks, LocalDate date) {
+      this.trucks = trucks;
+      this.date = date;
+    }
+
+    @Override
+    protected PartialSchedule compute() {
+      if (trucks.size() <= trucksPerTask) {
+        var partial = new PartialSchedule();
+        for (Truck truck : trucks) {
+          try {
+            partial.stops.put(truck.getId(), findDuring(truck.getId(), date));
+          } catch (RuntimeException e) {
+            log.log(Level.WARNING, "Could not compute schedule for " + truck.getId(), e);
+            partial.failed.add(truck.getId());
+          }
+        }
+        return partial;
+      }
+      int middle = trucks.size() / 2;
+      var left = new ScheduleTask(trucks.subList(0, middle), date);
+      left.fork();
+      var right = new ScheduleTask(trucks.subList(middle, trucks.size()), date).compute();
+      return left.join()
+          .merge(right);
+    }
+  }
+
+  public static class Builder {
+    private final TruckStopService stopService;
+    private int parallelism = Runtime.getRuntime()
+        .availableProcessors();
+    private ForkJoinPool pool;
+    private int trucksPerTask = 4;
+
+    private Builder(TruckStopService stopService) {
+      this.stopService = stopService;
+    }
+
+    /**
+     * The number of threads in the pool the service creates; ignored if a pool is supplied.
+     */
+    public Builder parallelism(int parallelism) {
+      this.parallelism = parallelism;
+      return this;
+    }
+
+    /**
+     * Runs the computation on an existing pool instead of creating one.  The pool is left running when the service is
+     * closed.
+     */
+    public Builder pool(ForkJoinPool pool) {
+      this.pool = pool;
+      return this;
+    }
+
+    /**
+     * The number of trucks below which a task looks them up itself rather than splitting further.  Larger values cut
+     * task overhead when lookups are cheap; smaller ones spread slow lookups more evenly.
+     */
+    public Builder trucksPerTask(int trucksPerTask) {
+      this.trucksPerTask = Math.max(1, trucksPerTask);
+      return this;
+    }
+
+    public FleetScheduleService build() {
+      return new FleetScheduleService(this);
+    }
+  }
+}
@@ -0,0 +1,80 @@
+package foodtruck.services;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+
+import foodtruck.models.Truck;
+
+/**
+ * A {@link TruckService} that forwards all of its calls to another truck service.  Subclasses override the methods
+ * they want to decorate.
+ */
+public abstract class ForwardingTruckService implements TruckService {
+
+  private final TruckService delegate;
+
+  protected ForwardingTruckService(TruckService delegate) {
+    this.delegate = delegate;
+  }
+
+  protected TruckService delegate() {
+    return delegate;
+  }
+
+  @Override
+  public List<Truck> findTrucksWithGoogleCalendars() {
+    return delegate.findTrucksWithGoogleCalendars();
+  }
+
+  @Override
+  public List<Truck> findTrucksWithICalCalendars() {
+    return delegate.findTrucksWithICalCalendars();
+  }
+
+  @Override
+  public List<Truck> findAll() {
+    return delegate.findAll();
+  }
+
+  @Override
+  public List<Truck> findByTwitterHandle(String twitterHandle) {
+    return delegate.findByTwitterHandle(twitterHandle);
+  }
+
+  @Override
+  public Optional<Truck> findById(String truckId) {
+    return delegate.findById(truckId);
+  }
+
+  @Override
+  public Stream<Truck> streamTrucksWithGoogleCalendars() {
+    return delegate.streamTrucksWithGoogleCalendars();
+  }
+
+  @Override
+  public Stream<Truck> streamTrucksWithICalCalendars() {
+    return delegate.streamTrucksWithICalCalendars();
+  }
+
+  @Override
+  public CompletableFuture<List<Truck>> findTrucksWithGoogleCalendarsAsync() {
+    return delegate.findTrucksWithGoogleCalendarsAsync();
+  }
+
+  @Override
+  public CompletableFuture<List<Truck>> findTrucksWithICalCalendarsAsync() {
+    return delegate.findTrucksWithICalCalendarsAsync();
+  }
+
+  @Override
+  public CompletableFuture<List<Truck>> findByTwitterHandleAsync(String twitterHandle) {
+    return delegate.findByTwitterHandleAsync(twitterHandle);
+  }
+
+  @Override
+  public CompletableFuture<Optional<Truck>> findByIdAsync(String truckId) {
+    return delegate.findByIdAsync(truckId);
+  }
+}
@@ -0,0 +1,171 @@
+package foodtruck.services;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.annotation.Nullable;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import foodtruck.json.Json;
+import foodtruck.models.Location;
+import foodtruck.util.ServiceException;
+
+/**
+ * The persistent tier of the {@link CachingGeoLocator}.  Entries are appended to a file of JSON lines as they are
+ * written; when the file is opened the log is replayed (later lines win), expired entries are dropped and the file is
+ * rewritten in compacted form.  The file is compacted again whenever it grows to twice its last compacted size (and at
+ * least the compaction threshold), so a long-running process doesn't grow it without bound.
+ */
+public class GeoCacheFile {
+
+  private static final Logger log = Logger.getLogger(GeoCacheFile.class.getName());
+
+  static final long DEFAULT_COMPACTION_THRESHOLD = 1 << 20;
+
+  private final Path path;
+  private final Clock clock;
+  private final long compactionThreshold;
+  private final ObjectMapper mapper;
+  private final Map<String, CachingGeoLocator.Entry> entries = new ConcurrentHashMap<>();
+  private BufferedWriter writer;
+  private long size;
+  private long compactedSize;
+
+  private GeoCacheFile(Path path, Clock clock, long compactionThreshold) {
+    this.path = path;
+    this.clock = clock;
+    this.compactionThreshold = compactionThreshold;
+    this.mapper = Json.provideObjectMapper();
+  }
+
+  /**
+   * Opens (or creates) the cache file at the specified path.
+   */
+  public static GeoCacheFile open(Path path, Clock clock) {
+    return open(path, clock, DEFAULT_COMPACTION_THRESHOLD);
+  }
+
+  /**
+   * Opens (or creates) the cache file at the specified path, compacting it once it grows past the specified number of
+   * bytes (or twice its last compacted size, whichever is larger).
+   */
+  public static GeoCacheFile open(Path path, Clock clock, long compactionThreshold) {
+    var file = new GeoCacheFile(path, clock, compactionThreshold);
+    try {
+      file.load(clock.millis());
+      file.compact();
+    } catch (IOException e) {
+      throw new ServiceException("Could not open geolocation cache " + path, e);
+    }
+    return file;
+  }
+
+  @Nullable
+  CachingGeoLocator.Entry get(String key) {
+    return entries.get(key);
+  }
+
+  synchronized void put(String key, CachingGeoLocator.Entry entry) {
+    entries.put(key, entry);
+    try {
+      size += write(writer, key, entry);
+      writer.flush();
+      if (size > Math.max(compactionThreshold, 2 * compactedSize)) {
+        compact();
+      }
+    } catch (IOException e) {
+      log.log(Level.WARNING, "Could not write to geolocation cache " + path, e);
+    }
+  }
+
+  /**
+   * Returns the number of bytes currently in the file.
+   */
+  synchronized long size() {
+    return size;
+  }
+
+  public synchronized void close() throws IOException {
+    writer.close();
+  }
+
+  private void load(long now) throws IOException {
+    if (!Files.exists(path)) {
+      return;
+    }
+    try (var lines = Files.lines(path, StandardCharsets.UTF_8)) {
+      lines.forEach(line -> {
+        try {
+          var node = mapper.readTree(line);
+          var expiresAt = node.get("expiresAt")
+              .asLong();
+          var key = node.get("key")
+              .asText();
+          if (expiresAt <= now) {
+            entries.remove(key);
+            return;
+          }
+          var location = node.hasNonNull("location") ?
+              mapper.treeToValue(node.get("location"), Location.class) : null;
+          entries.put(key, new CachingGeoLocator.Entry(location, expiresAt));
+        } catch (IOException | RuntimeException e) {
+          log.log(Level.WARNING, "Skipping unreadable geolocation cache entry: " + line, e);
+        }
+      });
+    }
+  }
+
+  private long write(BufferedWriter out, String key, CachingGeoLocator.Entry entry) throws IOException {
+    var node = mapper.createObjectNode();
+    node.put("key", key);
+    node.put("expiresAt", entry.expiresAt());
+    if (entry.location() != null) {
+      node.set("location", mapper.valueToTree(entry.location()));
+    }
+    var line = mapper.writeValueAsString(node);
+    out.write(line);
+    out.newLine();
+    return line.getBytes(StandardCharsets.UTF_8).length + System.lineSeparator()
+        .length();
+  }
+
+  private synchronized void compact() throws IOException {
+    long now = clock.millis();
+    entries.values()
+        .removeIf(entry -> entry.isExpired(now));
+    var parent = path.toAbsolutePath()
+        .getParent();
+    Files.createDirectories(parent);
+    var temp = Files.createTempFile(parent, path.getFileName()
+        .toString(), ".tmp");
+    long written = 0;
+    try (var out = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+      for (var entry : Map.copyOf(entries)
+          .entrySet()) {
+        written += write(out, entry.getKey(), entry.getValue());
+      }
+    }
+    if (writer != null) {
+      writer.close();
+    }
+    try {
+      Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      size = written;
+      compactedSize = written;
+    } finally {
+      writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+          StandardOpenOption.APPEND);
+    }
+  }
+}
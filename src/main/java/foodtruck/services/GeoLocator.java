@@ -1,10 +1,18 @@
 package foodtruck.services;
 
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 import foodtruck.models.Location;
 
 public interface GeoLocator {
   Optional<Location> broadSearch(String name);
 
+  /**
+   * Non-blocking version of {@link #broadSearch(String)}.  The default implementation runs the blocking call on the
+   * common pool.
+   */
+  default CompletableFuture<Optional<Location>> broadSearchAsync(String name) {
+    return CompletableFuture.supplyAsync(() -> broadSearch(name));
+  }
 }
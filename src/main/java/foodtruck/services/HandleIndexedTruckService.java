@@ -0,0 +1,82 @@
+package foodtruck.services;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import foodtruck.models.Truck;
+
+/**
+ * A {@link TruckService} decorator that answers {@link #findByTwitterHandle} from a {@link TwitterHandleIndex}
+ * instead of asking the delegate for every tweet.  Until the index has loaded, lookups go to the delegate.  A handle
+ * that isn't in the index is also looked up in the delegate, since the truck may have been added or changed its
+ * handle since the last refresh; that answer (found or not) is remembered for a short time so tweets from accounts
+ * that aren't trucks don't each cost a call.
+ */
+public class HandleIndexedTruckService extends ForwardingTruckService {
+
+  private static final Duration DEFAULT_MISS_TTL = Duration.ofSeconds(30);
+
+  private final TwitterHandleIndex index;
+  private final Cache<String, List<Truck>> misses;
+
+  public HandleIndexedTruckService(TruckService delegate, TwitterHandleIndex index) {
+    this(delegate, index, DEFAULT_MISS_TTL);
+  }
+
+  /**
+   * @param missTtl how long the delegate's answer for a handle that isn't in the index is remembered
+   */
+  public HandleIndexedTruckService(TruckService delegate, TwitterHandleIndex index, Duration missTtl) {
+    super(delegate);
+    this.index = index;
+    this.misses = CacheBuilder.newBuilder()
+        .expireAfterWrite(missTtl)
+        .maximumSize(10_000)
+        .build();
+  }
+
+  @Override
+  public List<Truck> findByTwitterHandle(String twitterHandle) {
+    if (!index.isLoaded()) {
+      return delegate().findByTwitterHandle(twitterHandle);
+    }
+    var trucks = index.findTrucks(twitterHandle);
+    if (!trucks.isEmpty()) {
+      return trucks;
+    }
+    var key = TwitterHandleIndex.key(twitterHandle);
+    var remembered = misses.getIfPresent(key);
+    if (remembered != null) {
+      return remembered;
+    }
+    var found = List.copyOf(delegate().findByTwitterHandle(twitterHandle));
+    misses.put(key, found);
+    return found;
+  }
+
+  @Override
+  public CompletableFuture<List<Truck>> findByTwitterHandleAsync(String twitterHandle) {
+    if (!index.isLoaded()) {
+      return delegate().findByTwitterHandleAsync(twitterHandle);
+    }
+    var trucks = index.findTrucks(twitterHandle);
+    if (!trucks.isEmpty()) {
+      return CompletableFuture.completedFuture(trucks);
+    }
+    var key = TwitterHandleIndex.key(twitterHandle);
+    var remembered = misses.getIfPresent(key);
+    if (remembered != null) {
+      return CompletableFuture.completedFuture(remembered);
+    }
+    return delegate().findByTwitterHandleAsync(twitterHandle)
+        .thenApply(found -> {
+          var copy = List.copyOf(found);
+          misses.put(key, copy);
+          return copy;
+        });
+  }
+}
@@ -1,45 +1,138 @@
 package foodtruck.services;
 
-import java.io.IOException;
 import java.net.URI;
-import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import foodtruck.json.Json;
+import foodtruck.util.ServiceException;
+import foodtruck.util.SingleFlight;
+
+import static com.google.common.base.Preconditions.checkArgument;
 
 @SuppressWarnings("DuplicatedCode")
 public class HttpAddressExtractor implements AddressExtractor {
 
   private static final Logger log = Logger.getLogger(HttpAddressExtractor.class.getName());
+  private static final int DEFAULT_BATCH_SIZE = 500;
+  private static final int DEFAULT_MAX_IN_FLIGHT = 32;
+  private final HttpTransport transport;
+  private final ObjectMapper mapper;
+  private final int batchSize;
+  private final int maxInFlight;
+  private final SingleFlight<AddressQuery, List<String>> extractions = new SingleFlight<>(LinkedList::new);
+
+  public HttpAddressExtractor() {
+    this(HttpTransport.shared());
+  }
+
+  public HttpAddressExtractor(HttpTransport transport) {
+    this(transport, DEFAULT_BATCH_SIZE, DEFAULT_MAX_IN_FLIGHT);
+  }
+
+  /**
+   * @param batchSize   the number of queries {@link #parseAll(List)} dispatches before collecting their results
+   * @param maxInFlight the maximum number of concurrent requests {@link #parseAll(List)} will make
+   */
+  public HttpAddressExtractor(HttpTransport transport, int batchSize, int maxInFlight) {
+    checkArgument(batchSize > 0, "batchSize must be positive: %s", batchSize);
+    checkArgument(maxInFlight > 0, "maxInFlight must be positive: %s", maxInFlight);
+    this.transport = transport;
+    this.mapper = Json.provideObjectMapper();
+    this.batchSize = batchSize;
+    this.maxInFlight = maxInFlight;
+  }
 
   @Override
   public List<String> parse(String text, String truckId) {
-    var client = HttpClient.newHttpClient();
-    ObjectMapper mapper = Json.provideObjectMapper();
+    return extractions.execute(new AddressQuery(text, truckId),
+        () -> transport.send(parseRequest(text, truckId), this::readAddresses));
+  }
+
+  @Override
+  public CompletableFuture<List<String>> parseAsync(String text, String truckId) {
+    return extractions.executeAsync(new AddressQuery(text, truckId),
+        () -> transport.sendAsync(parseRequest(text, truckId), this::readAddresses));
+  }
+
+  /**
+   * The address service takes one text per request, so batches are pipelined: requests are multiplexed over the
+   * shared connection with at most {@code maxInFlight} outstanding at a time, and results are collected a chunk of
+   * {@code batchSize} queries at a time.
+   */
+  @Override
+  public List<AddressResult> parseAll(List<AddressQuery> queries) {
+    var results = new ArrayList<AddressResult>(queries.size());
+    var permits = new Semaphore(maxInFlight);
+    for (int start = 0; start < queries.size(); start += batchSize) {
+      var chunk = queries.subList(start, Math.min(queries.size(), start + batchSize));
+      var futures = new ArrayList<CompletableFuture<AddressResult>>(chunk.size());
+      for (AddressQuery query : chunk) {
+        try {
+          permits.acquire();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new ServiceException("Interrupted while extracting addresses", e);
+        }
+        futures.add(dispatch(query).handle((addresses, e) -> {
+          permits.release();
+          return e == null ? AddressResult.success(query, addresses) : AddressResult.failure(query, unwrap(e));
+        }));
+      }
+      futures.forEach(future -> results.add(future.join()));
+    }
+    return results;
+  }
+
+  private CompletableFuture<List<String>> dispatch(AddressQuery query) {
+    try {
+      return parseAsync(query.getText(), query.getTruckId());
+    } catch (RuntimeException e) {
+      // still goes through handle(), so the permit is given back and the failure is reported for this query alone
+      return CompletableFuture.failedFuture(e);
+    }
+  }
+
+  private static RuntimeException unwrap(Throwable e) {
+    Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+    return cause instanceof RuntimeException ? (RuntimeException) cause : new ServiceException(cause);
+  }
+
+  private HttpRequest parseRequest(String text, String truckId) {
     try {
       var post = mapper.writeValueAsString(Map.of("text", text, "truckId", truckId));
       var addressLookupUrl = System.getenv().get("ADDRESS_LOOKUP_URL");
-      var request = HttpRequest.newBuilder()
-          .uri(URI.create(addressLookupUrl))
+      return transport.newRequest(URI.create(addressLookupUrl))
           .header("Content-Type", "application/json")
-          .header("x-ftf-secret", System.getenv().get("FOODTRUCK_API_SECRET"))
           .POST(HttpRequest.BodyPublishers.ofString(post))
           .build();
-      var documentResponse = client.send(request, java.net.http.HttpResponse.BodyHandlers.ofString());
-      if (documentResponse.statusCode() >= 400) {
-        log.log(Level.SEVERE, "Response code: " + documentResponse.statusCode());
-        log.log(Level.SEVERE, documentResponse.body());
-        throw new RuntimeException("Could not connect to address matcher");
-      }
+    } catch (JsonProcessingException e) {
+      log.log(Level.SEVERE, e.getMessage(), e);
+      throw new ServiceException(e);
+    }
+  }
+
+  private List<String> readAddresses(HttpResponse<String> documentResponse) {
+    if (documentResponse.statusCode() >= 400) {
+      log.log(Level.SEVERE, "Response code: " + documentResponse.statusCode());
+      log.log(Level.SEVERE, documentResponse.body());
+      throw new ServiceException("Could not connect to address matcher", documentResponse.statusCode());
+    }
+    try {
       var json = mapper.readTree(documentResponse.body());
       var items = new LinkedList<String>();
 
@@ -47,9 +140,9 @@ public class HttpAddressExtractor implements AddressExtractor {
         items.add(it.next().asText());
       }
       return items;
-    } catch (IOException | InterruptedException e) {
+    } catch (JsonProcessingException e) {
       log.log(Level.SEVERE, e.getMessage(), e);
-      throw new RuntimeException(e);
+      throw new ServiceException(e);
     }
   }
 }
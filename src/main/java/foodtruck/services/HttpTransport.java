@@ -0,0 +1,322 @@
+package foodtruck.services;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.annotation.Nullable;
+
+import com.google.common.base.Strings;
+
+import foodtruck.util.ResiliencePolicy;
+import foodtruck.util.ServiceException;
+
+/**
+ * A long-lived HTTP transport shared by all of the outbound food truck API calls.  The underlying
+ * {@link HttpClient} negotiates HTTP/2 and keeps connections alive between requests, so callers should share a single
+ * instance rather than creating a client per request.
+ */
+public class HttpTransport {
+
+  public static final String FOODTRUCK_API_URL = "https://www.chicagofoodtruckfinder.com";
+
+  private static final Logger log = Logger.getLogger(HttpTransport.class.getName());
+  private static volatile HttpTransport shared;
+
+  private final HttpClient client;
+  private final Duration requestTimeout;
+  private final @Nullable String apiSecret;
+  private final String apiUrl;
+  private final List<URI> warmupTargets;
+  private final Supplier<ResiliencePolicy> policyFactory;
+  private final Map<String, ResiliencePolicy> policies = new ConcurrentHashMap<>();
+
+  private HttpTransport(Builder builder) {
+    HttpClient.Builder clientBuilder = HttpClient.newBuilder()
+        .version(HttpClient.Version.HTTP_2)
+        .followRedirects(HttpClient.Redirect.NORMAL)
+        .connectTimeout(builder.connectTimeout);
+    if (builder.executor != null) {
+      clientBuilder.executor(builder.executor);
+    }
+    this.client = clientBuilder.build();
+    this.requestTimeout = builder.requestTimeout;
+    this.apiSecret = builder.apiSecret;
+    this.apiUrl = builder.apiUrl;
+    this.warmupTargets = List.copyOf(builder.warmupTargets);
+    this.policyFactory = builder.policyFactory;
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * Returns the process-wide transport, creating (and pre-warming) it on first use.
+   */
+  public static HttpTransport shared() {
+    HttpTransport transport = shared;
+    if (transport == null) {
+      synchronized (HttpTransport.class) {
+        transport = shared;
+        if (transport == null) {
+          transport = builder().build();
+          transport.warmUp();
+          shared = transport;
+        }
+      }
+    }
+    return transport;
+  }
+
+  public HttpClient getClient() {
+    return client;
+  }
+
+  /**
+   * Returns a request builder for the specified URI with the API secret and request timeout applied.
+   */
+  public HttpRequest.Builder newRequest(URI uri) {
+    var builder = HttpRequest.newBuilder()
+        .uri(uri)
+        .timeout(requestTimeout);
+    if (apiSecret != null) {
+      builder.header("x-ftf-secret", apiSecret);
+    }
+    return builder;
+  }
+
+  /**
+   * Returns a request builder for a path on the food truck API.
+   */
+  public HttpRequest.Builder newApiRequest(String path) {
+    return newRequest(URI.create(apiUrl + path));
+  }
+
+  /**
+   * Returns the resilience policy (deadline, retries, hedging and circuit breaker) used for calls to the URI's host.
+   */
+  public ResiliencePolicy policyFor(URI uri) {
+    return policies.computeIfAbsent(uri.getHost(), host -> policyFactory.get());
+  }
+
+  /**
+   * Sends the request, blocking until the response has been handled by the response function.  I/O failures and
+   * interruptions are reported as {@link ServiceException}s.
+   */
+  public <T> T send(HttpRequest request, Function<HttpResponse<String>, T> responseFunction) {
+    return await(request, sendAsync(request, responseFunction));
+  }
+
+  /**
+   * Sends the request using the specified body handler, blocking until the response has been handled by the response
+   * function.  Failed idempotent requests are retried, but never hedged since the response body may hold resources.
+   */
+  public <B, T> T send(HttpRequest request, HttpResponse.BodyHandler<B> bodyHandler,
+      Function<HttpResponse<B>, T> responseFunction) {
+    boolean idempotent = isIdempotent(request);
+    return await(request, policyFor(request.uri()).execute(() -> exchange(request, bodyHandler, responseFunction),
+        idempotent, false));
+  }
+
+  /**
+   * Sends the request without blocking.  The returned future completes with the result of the response function, or
+   * exceptionally with a {@link ServiceException}.  Idempotent requests are retried and hedged according to the host's
+   * {@link ResiliencePolicy}.  Cancelling the returned future stops waiting for the exchange and discards its
+   * response; the exchange itself is only aborted on JDK 16 and later, where {@link HttpClient} supports it.
+   */
+  public <T> CompletableFuture<T> sendAsync(HttpRequest request,
+      Function<HttpResponse<String>, T> responseFunction) {
+    boolean idempotent = isIdempotent(request);
+    return policyFor(request.uri()).execute(
+        () -> exchange(request, HttpResponse.BodyHandlers.ofString(), responseFunction), idempotent, idempotent);
+  }
+
+  private <B, T> CompletableFuture<T> exchange(HttpRequest request, HttpResponse.BodyHandler<B> bodyHandler,
+      Function<HttpResponse<B>, T> responseFunction) {
+    var exchange = client.sendAsync(request, bodyHandler);
+    var result = new CompletableFuture<T>();
+    exchange.whenComplete((response, e) -> {
+      if (e != null) {
+        result.completeExceptionally(toServiceException(request, e));
+        return;
+      }
+      if (result.isCancelled()) {
+        // before JDK 16 cancelling doesn't abort the exchange, so release a streamed body nobody is going to read
+        closeQuietly(response.body());
+        return;
+      }
+      try {
+        result.complete(responseFunction.apply(response));
+      } catch (RuntimeException ex) {
+        result.completeExceptionally(toServiceException(request, ex));
+      }
+    });
+    result.whenComplete((value, e) -> {
+      if (e instanceof CancellationException) {
+        exchange.cancel(true);
+      }
+    });
+    return result;
+  }
+
+  private static void closeQuietly(Object body) {
+    if (body instanceof AutoCloseable) {
+      try {
+        ((AutoCloseable) body).close();
+      } catch (Exception e) {
+        log.log(Level.FINE, "Could not close abandoned response body", e);
+      }
+    }
+  }
+
+  private static boolean isIdempotent(HttpRequest request) {
+    var method = request.method();
+    return method.equals("GET") || method.equals("HEAD");
+  }
+
+  private static <T> T await(HttpRequest request, CompletableFuture<T> future) {
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      future.cancel(true);
+      Thread.currentThread().interrupt();
+      throw new ServiceException("Interrupted calling " + request.uri(), e);
+    } catch (ExecutionException e) {
+      var cause = toServiceException(request, e.getCause());
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      throw new ServiceException(cause);
+    }
+  }
+
+  private static Throwable toServiceException(HttpRequest request, Throwable e) {
+    Throwable cause = e;
+    while (cause instanceof CompletionException && cause.getCause() != null) {
+      cause = cause.getCause();
+    }
+    if (cause instanceof ServiceException || cause instanceof CancellationException) {
+      return cause;
+    }
+    log.log(Level.SEVERE, cause.getMessage(), cause);
+    return new ServiceException("Could not connect to " + request.uri(), cause);
+  }
+
+  /**
+   * Opens connections to each of the warm-up hosts in the background so the TLS handshake is out of the way before
+   * the first real request.  Failures are logged and otherwise ignored.
+   */
+  public CompletableFuture<Void> warmUp() {
+    var futures = warmupTargets.stream()
+        .map(uri -> client.sendAsync(HttpRequest.newBuilder()
+            .uri(uri)
+            .timeout(requestTimeout)
+            .method("HEAD", HttpRequest.BodyPublishers.noBody())
+            .build(), HttpResponse.BodyHandlers.discarding())
+            .handle((response, e) -> {
+              if (e != null) {
+                log.log(Level.WARNING, "Could not warm up connection to " + uri, e);
+              }
+              return null;
+            }))
+        .toArray(CompletableFuture[]::new);
+    return CompletableFuture.allOf(futures);
+  }
+
+  public static class Builder {
+    private Duration connectTimeout = Duration.ofSeconds(5);
+    private Duration requestTimeout = Duration.ofSeconds(10);
+    private Supplier<ResiliencePolicy> policyFactory = () -> ResiliencePolicy.builder()
+        .build();
+    private @Nullable Executor executor;
+    private @Nullable String apiSecret = System.getenv("FOODTRUCK_API_SECRET");
+    private String apiUrl = FOODTRUCK_API_URL;
+    private final List<URI> warmupTargets = new ArrayList<>();
+
+    private Builder() {
+      warmupTargets.add(URI.create(FOODTRUCK_API_URL + "/"));
+      addressLookupHost().ifPresent(warmupTargets::add);
+    }
+
+    private static Optional<URI> addressLookupHost() {
+      var url = System.getenv("ADDRESS_LOOKUP_URL");
+      if (Strings.isNullOrEmpty(url)) {
+        return Optional.empty();
+      }
+      var uri = URI.create(url);
+      return Optional.of(URI.create(uri.getScheme() + "://" + uri.getRawAuthority() + "/"));
+    }
+
+    public Builder connectTimeout(Duration connectTimeout) {
+      this.connectTimeout = connectTimeout;
+      return this;
+    }
+
+    /**
+     * The time limit for a single attempt; see {@link ResiliencePolicy.Builder#deadline(Duration)} for the limit on
+     * the call as a whole.
+     */
+    public Builder requestTimeout(Duration requestTimeout) {
+      this.requestTimeout = requestTimeout;
+      return this;
+    }
+
+    /**
+     * Creates the resilience policy for each upstream host.  Every host gets its own policy instance, so one
+     * unhealthy upstream doesn't trip the circuit breaker for the others.
+     */
+    public Builder resilience(Supplier<ResiliencePolicy> policyFactory) {
+      this.policyFactory = policyFactory;
+      return this;
+    }
+
+    public Builder executor(@Nullable Executor executor) {
+      this.executor = executor;
+      return this;
+    }
+
+    public Builder apiSecret(@Nullable String apiSecret) {
+      this.apiSecret = apiSecret;
+      return this;
+    }
+
+    /**
+     * The base URL of the food truck API, without a trailing slash.  Defaults to {@link #FOODTRUCK_API_URL}.
+     */
+    public Builder apiUrl(String apiUrl) {
+      this.apiUrl = apiUrl;
+      return this;
+    }
+
+    public Builder warmupTarget(URI uri) {
+      this.warmupTargets.add(uri);
+      return this;
+    }
+
+    public Builder clearWarmupTargets() {
+      this.warmupTargets.clear();
+      return this;
+    }
+
+    public HttpTransport build() {
+      return new HttpTransport(this);
+    }
+  }
+}
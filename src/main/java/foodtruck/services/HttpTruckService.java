@@ -1,29 +1,50 @@
 package foodtruck.services;
 
 import java.io.IOException;
-import java.net.URI;
-import java.net.http.HttpClient;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Optional;
-import java.util.function.Function;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import foodtruck.json.Json;
 import foodtruck.models.Truck;
+import foodtruck.util.ServiceException;
+import foodtruck.util.SingleFlight;
 
 public class HttpTruckService implements TruckService {
 
   private static final Logger log = Logger.getLogger(HttpTruckService.class.getName());
   private final ObjectMapper mapper;
+  private final HttpTransport transport;
+  private final SingleFlight<String, Optional<Truck>> truckFlights = new SingleFlight<>();
+  private final SingleFlight<String, List<Truck>> truckListFlights = new SingleFlight<>(ArrayList::new);
 
   public HttpTruckService() {
-    mapper = Json.provideObjectMapper();
+    this(HttpTransport.shared());
+  }
+
+  public HttpTruckService(HttpTransport transport) {
+    this.mapper = Json.provideObjectMapper();
+    this.transport = transport;
   }
 
   @Override
@@ -36,61 +57,170 @@ public class HttpTruckService implements TruckService {
     return findTrucks("filter=ical");
   }
 
+  @Override
+  public List<Truck> findAll() {
+    return findTrucks("");
+  }
+
   @Override
   public List<Truck> findByTwitterHandle(String twitterHandle) {
     return findTrucks("twitter="+twitterHandle);
   }
 
+  @Override
+  public Stream<Truck> streamTrucksWithGoogleCalendars() {
+    return streamTrucks("filter=google_calendar");
+  }
+
+  @Override
+  public Stream<Truck> streamTrucksWithICalCalendars() {
+    return streamTrucks("filter=ical");
+  }
+
   @Override
   public Optional<Truck> findById(String truckId) {
-    return httpGet("/services/v2/trucks/" + truckId, (response) -> {
-      try {
-        if (response.statusCode() == 404) {
-          return Optional.empty();
-        } else if (response.statusCode() >= 400) {
-          handleResponseError(response);
-        }
-        Truck truck = mapper.readValue(response.body(), Truck.class);
-        return Optional.of(truck);
-      } catch (JsonProcessingException e) {
+    return truckFlights.execute(truckId, () -> transport.send(truckRequest(truckId), this::readTruck));
+  }
+
+  @Override
+  public CompletableFuture<List<Truck>> findTrucksWithGoogleCalendarsAsync() {
+    return findTrucksAsync("filter=google_calendar");
+  }
+
+  @Override
+  public CompletableFuture<List<Truck>> findTrucksWithICalCalendarsAsync() {
+    return findTrucksAsync("filter=ical");
+  }
+
+  @Override
+  public CompletableFuture<List<Truck>> findByTwitterHandleAsync(String twitterHandle) {
+    return findTrucksAsync("twitter=" + twitterHandle);
+  }
+
+  @Override
+  public CompletableFuture<Optional<Truck>> findByIdAsync(String truckId) {
+    return truckFlights.executeAsync(truckId, () -> transport.sendAsync(truckRequest(truckId), this::readTruck));
+  }
+
+  private HttpRequest truckRequest(String truckId) {
+    return apiGet("/services/v2/trucks/" + truckId);
+  }
+
+  private Optional<Truck> readTruck(HttpResponse<String> response) {
+    try {
+      if (response.statusCode() == 404) {
         return Optional.empty();
+      } else if (response.statusCode() >= 400) {
+        handleResponseError(response);
       }
-    });
+      Truck truck = mapper.readValue(response.body(), Truck.class);
+      return Optional.of(truck);
+    } catch (JsonProcessingException e) {
+      // not the same as a 404: callers (and caches) must not take an unreadable response to mean there's no truck
+      throw new ServiceException(e);
+    }
   }
 
   private void handleResponseError(HttpResponse<String> response) {
     log.log(Level.SEVERE, "Response code: " + response.statusCode());
     log.log(Level.SEVERE, response.body());
-    throw new RuntimeException(response.toString());
+    throw new ServiceException(response.toString(), response.statusCode());
   }
 
   private List<Truck> findTrucks(String queryString) {
-    return httpGet("/services/v2/trucks?" + queryString, (response) -> {
-      try {
-        if (response.statusCode() >= 400) {
-          handleResponseError(response);
-        }
-        return Arrays.asList(mapper.readValue(response.body(), Truck[].class));
-      } catch (JsonProcessingException e) {
-        throw new RuntimeException(e);
+    return truckListFlights.execute(queryString, () -> {
+      try (var trucks = streamTrucks(queryString)) {
+        return trucks.collect(Collectors.toList());
       }
     });
   }
 
-  private static <T> T httpGet(String uri, Function<HttpResponse<String>, T> responseFunction) {
-    var client = HttpClient.newHttpClient();
+  /**
+   * Parses the truck list directly off of the response stream, yielding each truck as soon as it has been read
+   * rather than buffering the whole response body.
+   */
+  private Stream<Truck> streamTrucks(String queryString) {
+    return transport.send(apiGet("/services/v2/trucks?" + queryString), HttpResponse.BodyHandlers.ofInputStream(),
+        this::readTruckStream);
+  }
+
+  Stream<Truck> readTruckStream(HttpResponse<InputStream> response) {
+    var body = response.body();
     try {
-      var request = java.net.http.HttpRequest.newBuilder()
-          .uri(URI.create("https://www.chicagofoodtruckfinder.com" + uri))
-          .header("Content-Type", "application/json")
-          .header("x-ftf-secret", System.getenv().get("FOODTRUCK_API_SECRET"))
-          .GET()
-          .build();
-      var documentResponse = client.send(request, java.net.http.HttpResponse.BodyHandlers.ofString());
-      return responseFunction.apply(documentResponse);
-    } catch (IOException | InterruptedException e) {
+      if (response.statusCode() >= 400) {
+        log.log(Level.SEVERE, "Response code: " + response.statusCode());
+        log.log(Level.SEVERE, new String(body.readAllBytes(), StandardCharsets.UTF_8));
+        body.close();
+        throw new ServiceException(response.toString(), response.statusCode());
+      }
+      MappingIterator<Truck> iterator = mapper.readerFor(Truck.class)
+          .readValues(body);
+      return StreamSupport.stream(Spliterators.spliteratorUnknownSize(new TruckIterator(iterator),
+          Spliterator.ORDERED | Spliterator.NONNULL), false)
+          .onClose(() -> {
+            try {
+              iterator.close();
+            } catch (IOException e) {
+              throw new UncheckedIOException(e);
+            }
+          });
+    } catch (IOException e) {
       log.log(Level.SEVERE, e.getMessage(), e);
-      throw new RuntimeException(e);
+      throw new ServiceException(e);
+    }
+  }
+
+  private CompletableFuture<List<Truck>> findTrucksAsync(String queryString) {
+    return truckListFlights.executeAsync(queryString,
+        () -> transport.sendAsync(apiGet("/services/v2/trucks?" + queryString), this::readTrucks));
+  }
+
+  private List<Truck> readTrucks(HttpResponse<String> response) {
+    try {
+      if (response.statusCode() >= 400) {
+        handleResponseError(response);
+      }
+      return Arrays.asList(mapper.readValue(response.body(), Truck[].class));
+    } catch (JsonProcessingException e) {
+      throw new ServiceException(e);
+    }
+  }
+
+  private HttpRequest apiGet(String uri) {
+    return transport.newApiRequest(uri)
+        .header("Content-Type", "application/json")
+        .GET()
+        .build();
+  }
+
+  /**
+   * Reports a malformed element part way through the list as a {@link ServiceException}, like any other bad response.
+   */
+  private static class TruckIterator implements Iterator<Truck> {
+    private final MappingIterator<Truck> trucks;
+
+    private TruckIterator(MappingIterator<Truck> trucks) {
+      this.trucks = trucks;
+    }
+
+    @Override
+    public boolean hasNext() {
+      try {
+        return trucks.hasNext();
+      } catch (RuntimeException e) {
+        throw new ServiceException("Could not read truck list", e);
+      }
+    }
+
+    @Override
+    public Truck next() {
+      try {
+        return trucks.next();
+      } catch (NoSuchElementException e) {
+        throw e;
+      } catch (RuntimeException e) {
+        throw new ServiceException("Could not read truck list", e);
+      }
     }
   }
 }
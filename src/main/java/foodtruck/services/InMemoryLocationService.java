@@ -0,0 +1,110 @@
+package foodtruck.services;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.google.common.base.Strings;
+import com.google.common.collect.ImmutableList;
+
+import foodtruck.json.Json;
+import foodtruck.models.Location;
+import foodtruck.util.LocationNames;
+import foodtruck.util.ServiceException;
+
+/**
+ * A {@link LocationService} that answers lookups from an in-memory snapshot of all the locations.  Reloading builds
+ * a complete new set of indexes and swaps them in atomically, so the read path never takes a lock.
+ */
+public class InMemoryLocationService implements LocationService {
+
+  private volatile Snapshot snapshot = new Snapshot(List.of());
+
+  public InMemoryLocationService() {
+  }
+
+  public InMemoryLocationService(Collection<Location> locations) {
+    load(locations);
+  }
+
+  /**
+   * Replaces the current snapshot with the specified locations.
+   */
+  public void load(Collection<Location> locations) {
+    snapshot = new Snapshot(locations);
+  }
+
+  /**
+   * Replaces the current snapshot with the JSON array of locations read from the stream.
+   */
+  public void load(InputStream json) {
+    try (MappingIterator<Location> it = Json.provideInterningObjectMapper()
+        .readerFor(Location.class)
+        .readValues(json)) {
+      load(it.readAll());
+    } catch (IOException e) {
+      throw new ServiceException("Could not load locations", e);
+    }
+  }
+
+  public List<Location> findAll() {
+    return snapshot.locations;
+  }
+
+  @Override
+  public Optional<Location> findById(long id) {
+    return Optional.ofNullable(snapshot.byId.get(id));
+  }
+
+  @Override
+  public Optional<Location> findByName(String name) {
+    return Optional.ofNullable(snapshot.byName.get(LocationNames.normalize(name)));
+  }
+
+  /**
+   * Returns the location that the location called {@code name} is an alias for.  For example if "Daley Plaza" is
+   * stored with an alias of "50 West Washington Street, Chicago, IL", then looking up "Daley Plaza" returns the
+   * location named "50 West Washington Street, Chicago, IL"; looking up the street address returns nothing.  Empty
+   * if the location has no alias or the alias doesn't name a known location.
+   */
+  @Override
+  public Optional<Location> findByAlias(String name) {
+    return Optional.ofNullable(snapshot.byAlias.get(LocationNames.normalize(name)));
+  }
+
+  private static class Snapshot {
+    private final List<Location> locations;
+    private final Map<Long, Location> byId;
+    private final Map<String, Location> byName;
+    // from the normalized name of a location with an alias to the location the alias names
+    private final Map<String, Location> byAlias;
+
+    private Snapshot(Collection<Location> locations) {
+      this.locations = ImmutableList.copyOf(locations);
+      this.byId = new HashMap<>(locations.size() * 2);
+      this.byName = new HashMap<>(locations.size() * 2);
+      for (Location location : locations) {
+        if (location.getKey() != null) {
+          byId.put(location.getKey(), location);
+        }
+        if (location.getName() != null) {
+          byName.put(LocationNames.normalize(location.getName()), location);
+        }
+      }
+      this.byAlias = new HashMap<>();
+      for (Location location : locations) {
+        if (!Strings.isNullOrEmpty(location.getAlias()) && location.getName() != null) {
+          var target = byName.get(LocationNames.normalize(location.getAlias()));
+          if (target != null) {
+            byAlias.put(LocationNames.normalize(location.getName()), target);
+          }
+        }
+      }
+    }
+  }
+}
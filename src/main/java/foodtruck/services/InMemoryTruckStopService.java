@@ -0,0 +1,94 @@
+package foodtruck.services;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+import foodtruck.models.Location;
+import foodtruck.models.Truck;
+import foodtruck.models.TruckStop;
+import foodtruck.util.Clocks;
+
+/**
+ * A {@link TruckStopService} that answers queries from an in-memory set of truck stops.  The set is loaded in bulk
+ * and then kept up to date with {@link #add} and {@link #remove}, which update the indexes in place.
+ */
+public class InMemoryTruckStopService implements TruckStopService {
+
+  private static final double DEFAULT_NEARBY_MILES = 1.0;
+
+  private final double nearbyMiles;
+  private final ZoneId zone;
+  private final TruckScheduleStore schedules = new TruckScheduleStore();
+  private volatile TruckStopIndex index;
+
+  public InMemoryTruckStopService() {
+    this(DEFAULT_NEARBY_MILES, Clocks.CHICAGO);
+  }
+
+  /**
+   * @param nearbyMiles how close a stop must be to count as near a location that doesn't specify its own radius
+   * @param zone        the time zone used to determine what day a stop falls on
+   */
+  public InMemoryTruckStopService(double nearbyMiles, ZoneId zone) {
+    this.nearbyMiles = nearbyMiles;
+    this.zone = zone;
+    this.index = new TruckStopIndex(List.of(), nearbyMiles);
+  }
+
+  /**
+   * Replaces the current set of stops.
+   */
+  public synchronized void load(Collection<TruckStop> stops) {
+    index = new TruckStopIndex(stops, nearbyMiles);
+    schedules.load(stops);
+  }
+
+  public synchronized void add(TruckStop stop) {
+    index.insert(stop);
+    schedules.insert(stop);
+  }
+
+  /**
+   * Removes the stop (compared with {@link TruckStop#equals}).
+   */
+  public synchronized void remove(TruckStop stop) {
+    index.remove(stop);
+    schedules.remove(stop);
+  }
+
+  @Override
+  public List<TruckStop> findDuring(String truckId, LocalDate localDate) {
+    return schedules.overlapping(truckId, localDate.atStartOfDay(zone)
+        .toInstant(), localDate.plusDays(1)
+        .atStartOfDay(zone)
+        .toInstant());
+  }
+
+  /**
+   * Returns the truck's stops that overlap the range from start (inclusive) to end (exclusive).
+   */
+  public List<TruckStop> findOverlapping(String truckId, Instant start, Instant end) {
+    return schedules.overlapping(truckId, start, end);
+  }
+
+  /**
+   * Returns the stops of every truck that are active at the instant.
+   */
+  public List<TruckStop> findActiveAt(Instant instant) {
+    return schedules.activeAt(instant);
+  }
+
+  /**
+   * Returns the trucks with a stop active at the instant that is within the location's radius, or within the default
+   * nearby distance if the location has no radius.
+   */
+  @Override
+  public Set<Truck> findNearLocation(Location location, Instant instant) {
+    double miles = location.getRadius() > 0 ? location.getRadius() : nearbyMiles;
+    return index.findNear(location, miles, instant);
+  }
+}
@@ -0,0 +1,46 @@
+package foodtruck.services;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import foodtruck.models.Location;
+
+/**
+ * A {@link GeoLocator} that resolves names against a {@link LocationNameIndex} of known locations and only asks the
+ * remote locator when the name isn't found locally.
+ */
+public class LocalFirstGeoLocator implements GeoLocator {
+
+  private final GeoLocator remote;
+  private volatile LocationNameIndex index = LocationNameIndex.of(List.of());
+
+  public LocalFirstGeoLocator(GeoLocator remote) {
+    this.remote = remote;
+  }
+
+  public LocalFirstGeoLocator(GeoLocator remote, Collection<Location> locations) {
+    this(remote);
+    load(locations);
+  }
+
+  /**
+   * Replaces the known locations.
+   */
+  public void load(Collection<Location> locations) {
+    index = LocationNameIndex.of(locations);
+  }
+
+  @Override
+  public Optional<Location> broadSearch(String name) {
+    var local = index.find(name);
+    return local.isPresent() ? local : remote.broadSearch(name);
+  }
+
+  @Override
+  public CompletableFuture<Optional<Location>> broadSearchAsync(String name) {
+    var local = index.find(name);
+    return local.isPresent() ? CompletableFuture.completedFuture(local) : remote.broadSearchAsync(name);
+  }
+}
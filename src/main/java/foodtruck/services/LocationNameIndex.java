@@ -0,0 +1,201 @@
+package foodtruck.services;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import com.google.common.base.Strings;
+
+import foodtruck.models.Location;
+import foodtruck.util.LocationNames;
+
+/**
+ * An immutable index for resolving free-form location names against known locations without a remote call.
+ *
+ * <p>Each location is indexed under the {@link LocationNames#canonicalize canonical} form of its name and shortened
+ * name.  A location whose alias names another known location resolves to that location, the same as
+ * {@link InMemoryLocationService#findByAlias}.  Lookups try an exact match on the canonical form first.  Failing that,
+ * they find the entries that share the most character trigrams with the query and accept the closest one if it is
+ * within a small edit distance, which catches typos and minor spelling differences.  Numbers and directions are
+ * never edited: a fuzzy match must have exactly the same ones as the query, so different house numbers or sides of
+ * the street still go to the remote geolocator.
+ */
+public class LocationNameIndex {
+
+  private static final double MIN_TRIGRAM_SIMILARITY = 0.5;
+  private static final int MAX_CANDIDATES = 8;
+  private static final int[] NO_ENTRIES = new int[0];
+  private static final Set<String> DIRECTIONS = Set.of("north", "south", "east", "west");
+
+  private final Map<String, Location> byName;
+  private final String[] names;
+  private final String[] anchors;
+  private final Location[] locations;
+  private final int[] trigramCounts;
+  private final Map<String, int[]> postings;
+
+  private LocationNameIndex(Collection<Location> locations) {
+    var normalized = new HashMap<String, Location>();
+    for (Location location : locations) {
+      if (location.getName() != null) {
+        normalized.put(LocationNames.normalize(location.getName()), location);
+      }
+    }
+    this.byName = new HashMap<>(locations.size() * 4);
+    for (Location location : locations) {
+      if (location.getName() == null) {
+        continue;
+      }
+      var target = location;
+      if (!Strings.isNullOrEmpty(location.getAlias())) {
+        target = normalized.getOrDefault(LocationNames.normalize(location.getAlias()), location);
+      }
+      byName.putIfAbsent(LocationNames.canonicalize(location.getName()), target);
+      byName.putIfAbsent(LocationNames.canonicalize(location.getShortenedName()), target);
+    }
+    byName.remove("");
+    int size = byName.size();
+    this.names = new String[size];
+    this.anchors = new String[size];
+    this.locations = new Location[size];
+    this.trigramCounts = new int[size];
+    var lists = new HashMap<String, List<Integer>>();
+    int entry = 0;
+    for (Map.Entry<String, Location> e : byName.entrySet()) {
+      names[entry] = e.getKey();
+      anchors[entry] = anchors(e.getKey());
+      this.locations[entry] = e.getValue();
+      var trigrams = trigrams(e.getKey());
+      trigramCounts[entry] = trigrams.size();
+      for (String trigram : trigrams) {
+        lists.computeIfAbsent(trigram, k -> new ArrayList<>())
+            .add(entry);
+      }
+      entry++;
+    }
+    this.postings = new HashMap<>(lists.size() * 2);
+    lists.forEach((trigram, list) -> postings.put(trigram, list.stream()
+        .mapToInt(Integer::intValue)
+        .toArray()));
+  }
+
+  public static LocationNameIndex of(Collection<Location> locations) {
+    return new LocationNameIndex(locations);
+  }
+
+  /**
+   * Returns the known location the name most likely refers to, if any.
+   */
+  public Optional<Location> find(String name) {
+    if (Strings.isNullOrEmpty(name)) {
+      return Optional.empty();
+    }
+    var canonical = LocationNames.canonicalize(name);
+    var exact = byName.get(canonical);
+    if (exact != null) {
+      return Optional.of(exact);
+    }
+    return fuzzyMatch(canonical);
+  }
+
+  private Optional<Location> fuzzyMatch(String canonical) {
+    var trigrams = trigrams(canonical);
+    if (trigrams.isEmpty()) {
+      return Optional.empty();
+    }
+    var shared = new HashMap<Integer, Integer>();
+    for (String trigram : trigrams) {
+      for (int entry : postings.getOrDefault(trigram, NO_ENTRIES)) {
+        shared.merge(entry, 1, Integer::sum);
+      }
+    }
+    // the entries most similar by trigrams, best first
+    var candidates = new ArrayList<double[]>();
+    shared.forEach((entry, count) -> {
+      double similarity = 2.0 * count / (trigrams.size() + trigramCounts[entry]);
+      if (similarity >= MIN_TRIGRAM_SIMILARITY) {
+        candidates.add(new double[] {similarity, entry});
+      }
+    });
+    candidates.sort((a, b) -> Double.compare(b[0], a[0]));
+    var queryAnchors = anchors(canonical);
+    int maxEdits = Math.max(1, canonical.length() / 6);
+    Location best = null;
+    int bestDistance = maxEdits + 1;
+    for (int i = 0; i < Math.min(MAX_CANDIDATES, candidates.size()); i++) {
+      int entry = (int) candidates.get(i)[1];
+      if (!anchors[entry].equals(queryAnchors)) {
+        continue;
+      }
+      int distance = editDistance(canonical, names[entry], bestDistance - 1);
+      if (distance < bestDistance) {
+        best = locations[entry];
+        bestDistance = distance;
+      }
+    }
+    return Optional.ofNullable(best);
+  }
+
+  /**
+   * Returns the house numbers, other numbers and directions in the name.  These have to match exactly for a fuzzy
+   * match, since "600 West Chicago Avenue", "610 West Chicago Avenue" and "600 East Chicago Avenue" are all a single
+   * edit apart but are different places.
+   */
+  private static String anchors(String canonical) {
+    var anchors = new StringBuilder();
+    for (String token : canonical.split(" ")) {
+      if (DIRECTIONS.contains(token) || token.chars()
+          .anyMatch(Character::isDigit)) {
+        anchors.append(token)
+            .append(' ');
+      }
+    }
+    return anchors.toString();
+  }
+
+  private static List<String> trigrams(String value) {
+    var padded = "  " + value + " ";
+    var trigrams = new ArrayList<String>(padded.length());
+    for (int i = 0; i + 3 <= padded.length(); i++) {
+      var trigram = padded.substring(i, i + 3);
+      if (!trigrams.contains(trigram)) {
+        trigrams.add(trigram);
+      }
+    }
+    return trigrams;
+  }
+
+  /**
+   * Returns the Levenshtein distance between the strings, or a value greater than the limit if it is over the limit.
+   */
+  static int editDistance(String a, String b, int limit) {
+    if (Math.abs(a.length() - b.length()) > limit) {
+      return limit + 1;
+    }
+    var previous = new int[b.length() + 1];
+    var current = new int[b.length() + 1];
+    for (int j = 0; j <= b.length(); j++) {
+      previous[j] = j;
+    }
+    for (int i = 1; i <= a.length(); i++) {
+      current[0] = i;
+      int rowMinimum = current[0];
+      for (int j = 1; j <= b.length(); j++) {
+        int substitution = previous[j - 1] + (a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1);
+        current[j] = Math.min(substitution, Math.min(previous[j], current[j - 1]) + 1);
+        rowMinimum = Math.min(rowMinimum, current[j]);
+      }
+      if (rowMinimum > limit) {
+        return limit + 1;
+      }
+      var swap = previous;
+      previous = current;
+      current = swap;
+    }
+    return previous[b.length()];
+  }
+}
@@ -10,5 +10,10 @@ public interface LocationService {
 
   Optional<Location> findByName(String name);
 
-  Optional<Location> findByAlias(String alias);
+  /**
+   * Resolves a name through its alias: if the location called {@code name} is stored with an alias, returns the
+   * location the alias names.  This is the direction tweets need ("Daley Plaza" to its street address); it does not
+   * find the locations whose alias is {@code name}.
+   */
+  Optional<Location> findByAlias(String name);
 }
@@ -0,0 +1,345 @@
+package foodtruck.services;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.regex.Pattern;
+
+import com.google.common.base.Strings;
+
+import foodtruck.models.Location;
+import foodtruck.models.Truck;
+import foodtruck.util.AhoCorasick;
+import foodtruck.util.LocationNames;
+
+/**
+ * An {@link AddressExtractor} that finds addresses in the text itself and only sends the text to a remote extractor
+ * (normally {@link HttpAddressExtractor}) when it finds none.
+ *
+ * <p>Two kinds of addresses are recognized, after the text is split into {@link LocationNames#words canonical words}:
+ * <ul>
+ * <li>the names of known locations (and their shortened names, and both orders of an intersection), all found in one
+ * {@link AhoCorasick} pass, and reported by the name of the location (or the location it is an alias of);</li>
+ * <li>"X and Y" (or "X &amp; Y") where X and Y are both streets that appear in the intersections of known locations,
+ * reported as "X and Y" in the truck's default city.</li>
+ * </ul>
+ * Addresses on the truck's {@link Truck#getLocationBlacklist() blacklist} are dropped, from the remote extractor's
+ * results as well.  The known locations can be replaced at any time with {@link #load}.
+ *
+ * <p>The remote extractor is asked only when nothing at all is found locally.  This is deliberate, since most texts
+ * name one place and the remote call is by far the most expensive part of a parse, but it means a text that names a
+ * known place and an unknown one (say "Clark and Monroe today, Navy Pier tomorrow") only reports the known one.
+ * Keep the known locations {@link #load loaded} with the places trucks actually visit to keep such misses rare.
+ */
+public class RuleBasedAddressExtractor implements AddressExtractor {
+
+  private static final int MIN_NAME_LENGTH = 4;
+  private static final int MAX_STREET_WORDS = 3;
+  private static final String AND = "and";
+  private static final Pattern DIRECTION = Pattern.compile("^(north|south|east|west)( |$)");
+  private static final Pattern STREET_TYPE = Pattern.compile(
+      "(^| )(street|avenue|boulevard|drive|road|place|parkway|court|lane)$");
+
+  private final AddressExtractor remote;
+  private final TruckService trucks;
+  private final String defaultCity;
+  private volatile Gazetteer gazetteer;
+
+  private RuleBasedAddressExtractor(Builder builder) {
+    this.remote = builder.remote;
+    this.trucks = builder.trucks;
+    this.defaultCity = builder.defaultCity;
+    this.gazetteer = new Gazetteer(builder.locations);
+  }
+
+  public static Builder builder(AddressExtractor remote) {
+    return new Builder(remote);
+  }
+
+  /**
+   * Replaces the known locations.
+   */
+  public void load(Collection<Location> locations) {
+    gazetteer = new Gazetteer(locations);
+  }
+
+  @Override
+  public List<String> parse(String text, String truckId) {
+    var truck = truck(truckId);
+    var local = extract(text, truck);
+    return filter(local.isEmpty() ? remote.parse(text, truckId) : local, truck);
+  }
+
+  @Override
+  public CompletableFuture<List<String>> parseAsync(String text, String truckId) {
+    return truckAsync(truckId).thenCompose(truck -> {
+      var local = extract(text, truck);
+      return local.isEmpty() ? remote.parseAsync(text, truckId)
+          .thenApply(addresses -> filter(addresses, truck)) : CompletableFuture.completedFuture(filter(local, truck));
+    });
+  }
+
+  /**
+   * Resolves what it can locally and passes the rest to the remote extractor's {@link #parseAll} in one call.  (That
+   * isn't one request: {@link HttpAddressExtractor#parseAll} still makes one request per text, just concurrently.)
+   */
+  @Override
+  public List<AddressResult> parseAll(List<AddressQuery> queries) {
+    var results = new AddressResult[queries.size()];
+    var unresolved = new ArrayList<AddressQuery>();
+    var unresolvedTrucks = new ArrayList<Truck>();
+    var unresolvedIndexes = new ArrayList<Integer>();
+    for (int i = 0; i < queries.size(); i++) {
+      var query = queries.get(i);
+      try {
+        var truck = truck(query.getTruckId());
+        var local = extract(query.getText(), truck);
+        if (local.isEmpty()) {
+          unresolved.add(query);
+          unresolvedTrucks.add(truck);
+          unresolvedIndexes.add(i);
+        } else {
+          results[i] = AddressResult.success(query, filter(local, truck));
+        }
+      } catch (RuntimeException e) {
+        results[i] = AddressResult.failure(query, e);
+      }
+    }
+    if (!unresolved.isEmpty()) {
+      var remoteResults = remote.parseAll(unresolved);
+      for (int i = 0; i < remoteResults.size(); i++) {
+        var result = remoteResults.get(i);
+        results[unresolvedIndexes.get(i)] = result.isSuccess() ?
+            AddressResult.success(result.getQuery(), filter(result.getAddresses(), unresolvedTrucks.get(i))) : result;
+      }
+    }
+    return Arrays.asList(results);
+  }
+
+  /**
+   * Returns the addresses found in the text without asking the remote extractor, in the order they appear.  These
+   * aren't checked against the blacklist yet: a text that names only blacklisted places is still resolved.
+   */
+  List<String> extract(String text, Truck truck) {
+    if (Strings.isNullOrEmpty(text)) {
+      return List.of();
+    }
+    var words = LocationNames.words(text);
+    var found = new LinkedHashSet<String>();
+    var current = gazetteer;
+    var city = truck == null || Strings.isNullOrEmpty(truck.getDefaultCity()) ? defaultCity : truck.getDefaultCity();
+    // whether each word is already part of a known location
+    var covered = current.findNames(words, found);
+    for (int i = 1; i < words.size() - 1; i++) {
+      if (words.get(i)
+          .equals(AND) && !covered[i]) {
+        var pair = current.streetPair(words, i);
+        if (pair != null) {
+          found.add(pair + ", " + city);
+        }
+      }
+    }
+    return new ArrayList<>(found);
+  }
+
+  private Truck truck(String truckId) {
+    return trucks == null || truckId == null ? null : trucks.findById(truckId)
+        .orElse(null);
+  }
+
+  private CompletableFuture<Truck> truckAsync(String truckId) {
+    return trucks == null || truckId == null ? CompletableFuture.completedFuture(null) : trucks.findByIdAsync(truckId)
+        .thenApply(truck -> truck.orElse(null));
+  }
+
+  private static List<String> filter(List<String> addresses, Truck truck) {
+    return truck == null ? addresses : truck.getLocationBlacklist()
+        .filterNames(addresses);
+  }
+
+  /**
+   * The known locations and streets, compiled for searching text.
+   */
+  private static class Gazetteer {
+    private final AhoCorasick names;
+    private final String[] addresses;
+    private final Set<String> streets = new HashSet<>();
+
+    private Gazetteer(Collection<Location> locations) {
+      var byName = new HashMap<String, String>();
+      for (Location location : locations) {
+        if (location.getName() == null) {
+          continue;
+        }
+        var address = location.getName();
+        if (!Strings.isNullOrEmpty(location.getAlias())) {
+          address = location.getAlias();
+        }
+        for (String name : List.of(location.getName(), location.getShortenedName())) {
+          var canonical = LocationNames.canonicalize(name);
+          if (canonical.length() < MIN_NAME_LENGTH) {
+            continue;
+          }
+          byName.putIfAbsent(canonical, address);
+          var sides = canonical.split(" and ");
+          if (sides.length == 2) {
+            // canonical intersections are in alphabetical order, but the text may have them either way round
+            byName.putIfAbsent(sides[1] + " and " + sides[0], address);
+            streets.add(streetKey(sides[0]));
+            streets.add(streetKey(sides[1]));
+          }
+        }
+      }
+      var patterns = new ArrayList<String>(byName.size());
+      this.addresses = new String[byName.size()];
+      for (Map.Entry<String, String> entry : byName.entrySet()) {
+        addresses[patterns.size()] = entry.getValue();
+        patterns.add(entry.getKey());
+      }
+      this.names = AhoCorasick.of(patterns);
+    }
+
+    /**
+     * Adds the known locations named in the words to found, taking the longest name where names overlap, and returns
+     * which words were part of one.
+     */
+    private boolean[] findNames(List<String> words, Set<String> found) {
+      var covered = new boolean[words.size()];
+      if (names.patternCount() == 0) {
+        return covered;
+      }
+      var text = String.join(" ", words);
+      // the word that starts at each character, or -1
+      var wordAt = new int[text.length() + 1];
+      Arrays.fill(wordAt, -1);
+      for (int i = 0, start = 0; i < words.size(); start += words.get(i++)
+          .length() + 1) {
+        wordAt[start] = i;
+      }
+      var matches = new ArrayList<int[]>();
+      names.scan(text, (pattern, start, end) -> {
+        if (wordAt[start] >= 0 && (end == text.length() || text.charAt(end) == ' ')) {
+          matches.add(new int[] {start, end, pattern});
+        }
+      });
+      matches.sort((a, b) -> a[0] != b[0] ? Integer.compare(a[0], b[0]) : Integer.compare(b[1], a[1]));
+      int coveredTo = 0;
+      for (int[] match : matches) {
+        if (match[0] < coveredTo) {
+          continue;
+        }
+        found.add(addresses[match[2]]);
+        coveredTo = match[1];
+        int firstWord = wordAt[match[0]];
+        Arrays.fill(covered, firstWord, firstWord + countSpaces(text, match[0], match[1]) + 1, true);
+      }
+      return covered;
+    }
+
+    /**
+     * Returns "X and Y" for the longest known streets X and Y either side of the "and" at the index, or null.
+     */
+    private String streetPair(List<String> words, int and) {
+      var first = street(words, and - 1, -1);
+      var second = street(words, and + 1, 1);
+      if (first == null || second == null) {
+        return null;
+      }
+      return titleCase(first) + " and " + titleCase(second);
+    }
+
+    private String street(List<String> words, int from, int direction) {
+      String longest = null;
+      var street = new StringBuilder();
+      for (int i = from, count = 0; i >= 0 && i < words.size() && count < MAX_STREET_WORDS; i += direction, count++) {
+        if (words.get(i)
+            .equals(AND)) {
+          break;
+        }
+        if (direction > 0) {
+          street.append(count > 0 ? " " : "")
+              .append(words.get(i));
+        } else {
+          street.insert(0, count > 0 ? words.get(i) + " " : words.get(i));
+        }
+        var key = streetKey(street.toString());
+        if (!key.isEmpty() && streets.contains(key)) {
+          longest = street.toString();
+        }
+      }
+      return longest;
+    }
+
+    /**
+     * Drops a leading direction and a trailing street type, so "west madison street" and "madison" are the same.
+     */
+    private static String streetKey(String street) {
+      return STREET_TYPE.matcher(DIRECTION.matcher(street)
+          .replaceFirst(""))
+          .replaceFirst("");
+    }
+
+    private static int countSpaces(String text, int start, int end) {
+      int spaces = 0;
+      for (int i = start; i < end; i++) {
+        if (text.charAt(i) == ' ') {
+          spaces++;
+        }
+      }
+      return spaces;
+    }
+
+    private static String titleCase(String words) {
+      var result = new StringBuilder(words.length());
+      for (int i = 0; i < words.length(); i++) {
+        char c = words.charAt(i);
+        result.append(i == 0 || words.charAt(i - 1) == ' ' ? Character.toUpperCase(c) : c);
+      }
+      return result.toString();
+    }
+  }
+
+  public static class Builder {
+    private final AddressExtractor remote;
+    private TruckService trucks;
+    private String defaultCity = "Chicago, IL";
+    private Collection<Location> locations = List.of();
+
+    private Builder(AddressExtractor remote) {
+      this.remote = remote;
+    }
+
+    /**
+     * Where to find each truck's blacklist and default city.  This is called for every text, so it should be local
+     * (a {@link CachingTruckService}, say).
+     */
+    public Builder trucks(TruckService trucks) {
+      this.trucks = trucks;
+      return this;
+    }
+
+    /**
+     * The city for street intersections when the truck is unknown or has no default city of its own.
+     */
+    public Builder defaultCity(String defaultCity) {
+      this.defaultCity = defaultCity;
+      return this;
+    }
+
+    public Builder locations(Collection<Location> locations) {
+      this.locations = locations;
+      return this;
+    }
+
+    public RuleBasedAddressExtractor build() {
+      return new RuleBasedAddressExtractor(this);
+    }
+  }
+}
@@ -0,0 +1,275 @@
+package foodtruck.services;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+import com.google.common.base.Strings;
+import com.google.common.collect.HashMultiset;
+import com.google.common.collect.Multiset;
+
+import foodtruck.models.Truck;
+import foodtruck.util.Phonetics;
+
+/**
+ * Resolves a typed or spoken truck name to trucks, ranked best first.
+ *
+ * <p>Each truck is indexed under its {@link Truck#canonicalName() canonical name} and its phonetic aliases, both as
+ * written and in a {@link Phonetics phonetic encoding}.  The written forms also go into a prefix trie, starting at
+ * each word, so partial queries like "cajun con" or "connois" find "The Cajun Connoisseur".  Queries are ranked:
+ * exact name or alias matches first, then names that sound the same, then prefix matches (longer prefixes of shorter
+ * names first).  Trucks can be added, updated and removed one at a time.
+ */
+public class TruckNameIndex {
+
+  private static final Pattern NON_ALPHANUMERIC = Pattern.compile("[^a-z0-9]+");
+  private static final Pattern APOSTROPHES = Pattern.compile("['\\u2019]");
+
+  private static final double EXACT = 100;
+  private static final double PHONETIC = 80;
+  private static final double NAME_PREFIX = 60;
+  private static final double WORD_PREFIX = 40;
+  private static final double PHONETIC_PREFIX = 20;
+
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  // guarded by lock
+  private final Map<String, Entry> entries = new HashMap<>();
+  private final Map<String, Set<String>> exact = new HashMap<>();
+  private final Map<String, Set<String>> phonetic = new HashMap<>();
+  private final TrieNode names = new TrieNode();
+  private final TrieNode words = new TrieNode();
+  private final TrieNode phoneticWords = new TrieNode();
+  // highest score first, then by name
+  private final Comparator<Map.Entry<String, Double>> ranking = Map.Entry.<String, Double>comparingByValue()
+      .reversed()
+      .thenComparing(score -> entries.get(score.getKey()).truck.getName(),
+          Comparator.nullsLast(Comparator.naturalOrder()));
+
+  private TruckNameIndex() {
+  }
+
+  public static TruckNameIndex of(Collection<Truck> trucks) {
+    var index = new TruckNameIndex();
+    trucks.forEach(index::update);
+    return index;
+  }
+
+  /**
+   * Adds the truck, or replaces what was indexed for it if it's already there.
+   */
+  public void update(Truck truck) {
+    lock.writeLock()
+        .lock();
+    try {
+      removeTerms(truck.getId());
+      var terms = new ArrayList<String>();
+      addTerm(terms, truck.getName());
+      if (truck.getPhoneticAliases() != null) {
+        truck.getPhoneticAliases()
+            .forEach(alias -> addTerm(terms, alias));
+      }
+      entries.put(truck.getId(), new Entry(truck, terms));
+      for (String term : terms) {
+        exact.computeIfAbsent(term, t -> new LinkedHashSet<>())
+            .add(truck.getId());
+        var code = Phonetics.encode(term);
+        phonetic.computeIfAbsent(code, t -> new LinkedHashSet<>())
+            .add(truck.getId());
+        names.add(term, truck.getId());
+        forEachWordStart(term, suffix -> words.add(suffix, truck.getId()));
+        forEachWordStart(code, suffix -> phoneticWords.add(suffix, truck.getId()));
+      }
+    } finally {
+      lock.writeLock()
+          .unlock();
+    }
+  }
+
+  public void remove(String truckId) {
+    lock.writeLock()
+        .lock();
+    try {
+      removeTerms(truckId);
+    } finally {
+      lock.writeLock()
+          .unlock();
+    }
+  }
+
+  /**
+   * Returns up to k trucks matching the query, best match first.
+   */
+  public List<Truck> search(String query, int k) {
+    var term = normalize(query);
+    if (term.isEmpty() || k <= 0) {
+      return List.of();
+    }
+    var code = Phonetics.encode(term);
+    lock.readLock()
+        .lock();
+    try {
+      var scores = new HashMap<String, Double>();
+      exact.getOrDefault(term, Set.of())
+          .forEach(id -> scores.merge(id, EXACT, Math::max));
+      phonetic.getOrDefault(code, Set.of())
+          .forEach(id -> scores.merge(id, PHONETIC, Math::max));
+      scorePrefix(names.find(term), term, NAME_PREFIX, scores);
+      scorePrefix(words.find(term), term, WORD_PREFIX, scores);
+      // a single sound is too little to go on
+      var phoneticNode = code.length() > 1 ? phoneticWords.find(code) : null;
+      if (phoneticNode != null) {
+        phoneticNode.trucks.elementSet()
+            .forEach(id -> scores.merge(id, PHONETIC_PREFIX, Math::max));
+      }
+      // keep the best k in a heap whose head is the worst of them
+      var best = new PriorityQueue<Map.Entry<String, Double>>(k + 1, ranking.reversed());
+      for (Map.Entry<String, Double> score : scores.entrySet()) {
+        best.add(score);
+        if (best.size() > k) {
+          best.poll();
+        }
+      }
+      var results = new ArrayList<Truck>(best.size());
+      while (!best.isEmpty()) {
+        results.add(entries.get(best.poll()
+            .getKey()).truck);
+      }
+      Collections.reverse(results);
+      return results;
+    } finally {
+      lock.readLock()
+          .unlock();
+    }
+  }
+
+  /**
+   * Lower-cases the name, drops a leading "the" (as {@link Truck#canonize} does), removes apostrophes and turns other
+   * punctuation into spaces.
+   */
+  static String normalize(String name) {
+    if (Strings.isNullOrEmpty(name)) {
+      return "";
+    }
+    var canonical = Truck.canonize(APOSTROPHES.matcher(name.trim())
+        .replaceAll(""));
+    return NON_ALPHANUMERIC.matcher(canonical)
+        .replaceAll(" ")
+        .trim();
+  }
+
+  private void scorePrefix(TrieNode node, String prefix, double base, Map<String, Double> scores) {
+    if (node == null) {
+      return;
+    }
+    for (String id : node.trucks.elementSet()) {
+      // the more of the name the query covers, the better
+      double coverage = Math.min(1, prefix.length() / (double) entries.get(id).shortestTerm);
+      scores.merge(id, base + 10 * coverage, Math::max);
+    }
+  }
+
+  private static void addTerm(List<String> terms, String name) {
+    var term = normalize(name);
+    if (!term.isEmpty() && !terms.contains(term)) {
+      terms.add(term);
+    }
+  }
+
+  private void removeTerms(String truckId) {
+    var entry = entries.remove(truckId);
+    if (entry == null) {
+      return;
+    }
+    for (String term : entry.terms) {
+      var code = Phonetics.encode(term);
+      removeFrom(exact, term, truckId);
+      removeFrom(phonetic, code, truckId);
+      names.remove(term, 0, truckId);
+      forEachWordStart(term, suffix -> words.remove(suffix, 0, truckId));
+      forEachWordStart(code, suffix -> phoneticWords.remove(suffix, 0, truckId));
+    }
+  }
+
+  private static void removeFrom(Map<String, Set<String>> map, String key, String truckId) {
+    var ids = map.get(key);
+    if (ids != null) {
+      ids.remove(truckId);
+      if (ids.isEmpty()) {
+        map.remove(key);
+      }
+    }
+  }
+
+  private static void forEachWordStart(String term, Consumer<String> action) {
+    for (int i = 0; i < term.length(); i++) {
+      if (i == 0 || term.charAt(i - 1) == ' ') {
+        action.accept(term.substring(i));
+      }
+    }
+  }
+
+  private static class Entry {
+    private final Truck truck;
+    private final List<String> terms;
+    private final int shortestTerm;
+
+    private Entry(Truck truck, List<String> terms) {
+      this.truck = truck;
+      this.terms = terms;
+      this.shortestTerm = terms.stream()
+          .mapToInt(String::length)
+          .min()
+          .orElse(1);
+    }
+  }
+
+  /**
+   * A node in a prefix trie that counts, for each truck, how many of its indexed strings pass through the node.
+   */
+  private static class TrieNode {
+    private final Map<Character, TrieNode> children = new HashMap<>();
+    private final Multiset<String> trucks = HashMultiset.create();
+
+    private void add(String key, String truckId) {
+      var node = this;
+      for (int i = 0; i < key.length(); i++) {
+        node = node.children.computeIfAbsent(key.charAt(i), c -> new TrieNode());
+        node.trucks.add(truckId);
+      }
+    }
+
+    private void remove(String key, int depth, String truckId) {
+      if (depth == key.length()) {
+        return;
+      }
+      var child = children.get(key.charAt(depth));
+      if (child == null) {
+        return;
+      }
+      child.trucks.remove(truckId);
+      child.remove(key, depth + 1, truckId);
+      if (child.trucks.isEmpty()) {
+        children.remove(key.charAt(depth));
+      }
+    }
+
+    private TrieNode find(String prefix) {
+      var node = this;
+      for (int i = 0; i < prefix.length() && node != null; i++) {
+        node = node.children.get(prefix.charAt(i));
+      }
+      return node;
+    }
+  }
+}
@@ -0,0 +1,206 @@
+package foodtruck.services;
+
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import foodtruck.models.TruckStop;
+
+/**
+ * Keeps each truck's stops in start-time order for fast "what is this truck doing then" queries.
+ *
+ * <p>A truck's schedule is a set of parallel arrays: epoch-millisecond start and end times sorted by start, plus the
+ * running maximum of the end times.  A query binary-searches for the last stop starting before the end of the range
+ * and walks backwards until the running maximum shows that no earlier stop can reach into the range, so it costs
+ * O(log n + k) for the usual case of a truck's stops not overlapping much.  Schedules are copy-on-write: inserts and
+ * removes replace a truck's arrays atomically and a load replaces the whole map at once, so queries never lock and
+ * never see a partly loaded store.
+ */
+public class TruckScheduleStore {
+
+  private volatile Map<String, Schedule> schedules = new ConcurrentHashMap<>();
+
+  public TruckScheduleStore() {
+  }
+
+  public TruckScheduleStore(Collection<TruckStop> stops) {
+    load(stops);
+  }
+
+  /**
+   * Replaces every truck's schedule with the specified stops.  Stops without a truck, start time or end time are
+   * ignored.
+   */
+  public synchronized void load(Collection<TruckStop> stops) {
+    var byTruck = new HashMap<String, List<TruckStop>>();
+    for (TruckStop stop : stops) {
+      if (isSchedulable(stop)) {
+        byTruck.computeIfAbsent(truckId(stop), id -> new ArrayList<>())
+            .add(stop);
+      }
+    }
+    var loaded = new ConcurrentHashMap<String, Schedule>(byTruck.size() * 2);
+    byTruck.forEach((truckId, truckStops) -> loaded.put(truckId, new Schedule(truckStops)));
+    schedules = loaded;
+  }
+
+  public synchronized void insert(TruckStop stop) {
+    if (isSchedulable(stop)) {
+      schedules.compute(truckId(stop), (id, schedule) -> schedule == null ? new Schedule(List.of(stop)) :
+          schedule.with(stop));
+    }
+  }
+
+  /**
+   * Removes the stop (compared with {@link TruckStop#equals}) from its truck's schedule.
+   */
+  public synchronized void remove(TruckStop stop) {
+    if (isSchedulable(stop)) {
+      schedules.computeIfPresent(truckId(stop), (id, schedule) -> schedule.without(stop));
+    }
+  }
+
+  /**
+   * Returns the truck's stops that overlap the range from start (inclusive) to end (exclusive), in start-time order.
+   */
+  public List<TruckStop> overlapping(String truckId, Instant start, Instant end) {
+    var schedule = schedules.get(truckId);
+    return schedule == null ? List.of() : schedule.overlapping(start.toEpochMilli(), end.toEpochMilli());
+  }
+
+  /**
+   * Returns the truck's stops that are {@link TruckStop#activeDuring active} at the instant, in start-time order.
+   */
+  public List<TruckStop> activeAt(String truckId, Instant instant) {
+    var schedule = schedules.get(truckId);
+    return schedule == null ? List.of() : schedule.activeAt(instant.toEpochMilli());
+  }
+
+  /**
+   * Returns the stops of every truck that are {@link TruckStop#activeDuring active} at the instant.
+   */
+  public List<TruckStop> activeAt(Instant instant) {
+    var active = new ArrayList<TruckStop>();
+    long time = instant.toEpochMilli();
+    for (Schedule schedule : schedules.values()) {
+      active.addAll(schedule.activeAt(time));
+    }
+    return active;
+  }
+
+  private static boolean isSchedulable(TruckStop stop) {
+    return stop.getTruck() != null && stop.getStartTime() != null && stop.getEndTime() != null;
+  }
+
+  private static String truckId(TruckStop stop) {
+    return stop.getTruck()
+        .getId();
+  }
+
+  private static long epochMillis(ZonedDateTime time) {
+    return time.toInstant()
+        .toEpochMilli();
+  }
+
+  private static class Schedule {
+    private final TruckStop[] stops;
+    private final long[] starts;
+    private final long[] ends;
+    // maxEnds[i] is the latest end time of stops 0 through i
+    private final long[] maxEnds;
+
+    private Schedule(Collection<TruckStop> unsorted) {
+      this(sorted(unsorted));
+    }
+
+    private Schedule(TruckStop[] stops) {
+      this.stops = stops;
+      int size = stops.length;
+      this.starts = new long[size];
+      this.ends = new long[size];
+      this.maxEnds = new long[size];
+      long maxEnd = Long.MIN_VALUE;
+      for (int i = 0; i < size; i++) {
+        starts[i] = epochMillis(stops[i].getStartTime());
+        ends[i] = epochMillis(stops[i].getEndTime());
+        maxEnd = Math.max(maxEnd, ends[i]);
+        maxEnds[i] = maxEnd;
+      }
+    }
+
+    private static TruckStop[] sorted(Collection<TruckStop> stops) {
+      var array = stops.toArray(new TruckStop[0]);
+      Arrays.sort(array, Comparator.comparing(TruckStop::getStartTime));
+      return array;
+    }
+
+    private Schedule with(TruckStop stop) {
+      int position = firstStartAfter(epochMillis(stop.getStartTime()));
+      var updated = new TruckStop[stops.length + 1];
+      System.arraycopy(stops, 0, updated, 0, position);
+      updated[position] = stop;
+      System.arraycopy(stops, position, updated, position + 1, stops.length - position);
+      return new Schedule(updated);
+    }
+
+    /**
+     * Returns the schedule without the stop, or null if that leaves it empty.
+     */
+    private Schedule without(TruckStop stop) {
+      var updated = Arrays.stream(stops)
+          .filter(existing -> !existing.equals(stop))
+          .toArray(TruckStop[]::new);
+      if (updated.length == stops.length) {
+        return this;
+      }
+      return updated.length == 0 ? null : new Schedule(updated);
+    }
+
+    private List<TruckStop> overlapping(long start, long end) {
+      var found = new ArrayList<TruckStop>();
+      for (int i = firstStartAtOrAfter(end) - 1; i >= 0 && maxEnds[i] > start; i--) {
+        if (ends[i] > start) {
+          found.add(stops[i]);
+        }
+      }
+      Collections.reverse(found);
+      return found;
+    }
+
+    private List<TruckStop> activeAt(long time) {
+      var found = new ArrayList<TruckStop>();
+      for (int i = firstStartAfter(time) - 1; i >= 0 && (starts[i] == time || maxEnds[i] > time); i--) {
+        if (starts[i] == time || ends[i] > time) {
+          found.add(stops[i]);
+        }
+      }
+      Collections.reverse(found);
+      return found;
+    }
+
+    private int firstStartAtOrAfter(long time) {
+      int lo = 0, hi = starts.length;
+      while (lo < hi) {
+        int mid = (lo + hi) >>> 1;
+        if (starts[mid] < time) {
+          lo = mid + 1;
+        } else {
+          hi = mid;
+        }
+      }
+      return lo;
+    }
+
+    private int firstStartAfter(long time) {
+      return time == Long.MAX_VALUE ? starts.length : firstStartAtOrAfter(time + 1);
+    }
+  }
+}
@@ -1,7 +1,11 @@
 package foodtruck.services;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
 
 import foodtruck.models.Truck;
 
@@ -14,4 +18,60 @@ public interface TruckService {
   List<Truck> findByTwitterHandle(String twitterHandle);
 
   Optional<Truck> findById(String truckId);
+
+  /**
+   * Returns every truck in the fleet.  The default implementation combines the trucks with Google and iCal calendars;
+   * implementations that can list the whole fleet directly should override it.
+   */
+  default List<Truck> findAll() {
+    var trucks = new LinkedHashMap<String, Truck>();
+    findTrucksWithGoogleCalendars().forEach(truck -> trucks.putIfAbsent(truck.getId(), truck));
+    findTrucksWithICalCalendars().forEach(truck -> trucks.putIfAbsent(truck.getId(), truck));
+    return new ArrayList<>(trucks.values());
+  }
+
+  /**
+   * Streaming version of {@link #findTrucksWithGoogleCalendars()}.  Implementations may yield trucks as they are
+   * read, so the stream must be closed (e.g. with try-with-resources) when the caller is done with it.
+   */
+  default Stream<Truck> streamTrucksWithGoogleCalendars() {
+    return findTrucksWithGoogleCalendars().stream();
+  }
+
+  /**
+   * Streaming version of {@link #findTrucksWithICalCalendars()}.  The stream must be closed when the caller is done
+   * with it.
+   */
+  default Stream<Truck> streamTrucksWithICalCalendars() {
+    return findTrucksWithICalCalendars().stream();
+  }
+
+  /**
+   * Non-blocking version of {@link #findTrucksWithGoogleCalendars()}.  The default implementation runs the blocking
+   * call on the common pool.
+   */
+  default CompletableFuture<List<Truck>> findTrucksWithGoogleCalendarsAsync() {
+    return CompletableFuture.supplyAsync(this::findTrucksWithGoogleCalendars);
+  }
+
+  /**
+   * Non-blocking version of {@link #findTrucksWithICalCalendars()}.
+   */
+  default CompletableFuture<List<Truck>> findTrucksWithICalCalendarsAsync() {
+    return CompletableFuture.supplyAsync(this::findTrucksWithICalCalendars);
+  }
+
+  /**
+   * Non-blocking version of {@link #findByTwitterHandle(String)}.
+   */
+  default CompletableFuture<List<Truck>> findByTwitterHandleAsync(String twitterHandle) {
+    return CompletableFuture.supplyAsync(() -> findByTwitterHandle(twitterHandle));
+  }
+
+  /**
+   * Non-blocking version of {@link #findById(String)}.
+   */
+  default CompletableFuture<Optional<Truck>> findByIdAsync(String truckId) {
+    return CompletableFuture.supplyAsync(() -> findById(truckId));
+  }
 }
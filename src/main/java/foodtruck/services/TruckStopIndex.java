@@ -0,0 +1,175 @@
+package foodtruck.services;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.annotation.Nullable;
+
+import foodtruck.geo.GeoMath;
+import foodtruck.models.Location;
+import foodtruck.models.Truck;
+import foodtruck.models.TruckStop;
+
+/**
+ * A spatio-temporal index over truck stops.  Stops are bucketed into a grid of latitude/longitude cells, and within
+ * each cell they are sorted by start time, so a "who's near here right now" query only looks at the few cells that
+ * overlap the search radius and, within those, only at stops that started recently enough to still be running.  Stops
+ * without a truck, location or times can't match a query and aren't indexed.  Cells are copy-on-write: inserts and
+ * removes replace one cell's arrays atomically, so queries never lock.
+ */
+class TruckStopIndex {
+
+  private static final double MILES_PER_DEGREE = GeoMath.EARTH_RADIUS_MILES * Math.toRadians(1);
+
+  private final double cellDegrees;
+  private final Map<Long, Cell> cells;
+
+  TruckStopIndex(Collection<TruckStop> stops, double cellMiles) {
+    this.cellDegrees = cellMiles / MILES_PER_DEGREE;
+    var buckets = new HashMap<Long, List<TruckStop>>();
+    for (TruckStop stop : stops) {
+      if (isIndexable(stop)) {
+        buckets.computeIfAbsent(cellKey(stop), k -> new ArrayList<>())
+            .add(stop);
+      }
+    }
+    this.cells = new ConcurrentHashMap<>(buckets.size() * 2);
+    buckets.forEach((key, bucket) -> cells.put(key, new Cell(bucket)));
+  }
+
+  synchronized void insert(TruckStop stop) {
+    if (isIndexable(stop)) {
+      cells.compute(cellKey(stop), (key, cell) -> cell == null ? new Cell(List.of(stop)) : cell.with(stop));
+    }
+  }
+
+  /**
+   * Removes the stop (compared with {@link TruckStop#equals}) from the index.
+   */
+  synchronized void remove(TruckStop stop) {
+    if (isIndexable(stop)) {
+      cells.computeIfPresent(cellKey(stop), (key, cell) -> cell.without(stop));
+    }
+  }
+
+  /**
+   * Returns the trucks that have a stop active at the instant within the specified number of miles of the location.
+   */
+  Set<Truck> findNear(Location location, double miles, Instant instant) {
+    var trucks = new HashSet<Truck>();
+    double latDelta = miles / MILES_PER_DEGREE;
+    double maxLatitude = Math.min(89.9, Math.abs(location.getLatitude()) + latDelta);
+    double lngDelta = latDelta / Math.cos(Math.toRadians(maxLatitude));
+    long minLat = cell(location.getLatitude() - latDelta), maxLat = cell(location.getLatitude() + latDelta);
+    long minLng = cell(location.getLongitude() - lngDelta), maxLng = cell(location.getLongitude() + lngDelta);
+    long time = epochMillis(instant);
+    var within = location.within(miles);
+    for (long lat = minLat; lat <= maxLat; lat++) {
+      for (long lng = minLng; lng <= maxLng; lng++) {
+        var cell = cells.get(key(lat, lng));
+        if (cell != null) {
+          cell.collectActive(time, within, trucks);
+        }
+      }
+    }
+    return trucks;
+  }
+
+  private static boolean isIndexable(TruckStop stop) {
+    return stop.getTruck() != null && stop.getLocation() != null && stop.getStartTime() != null &&
+        stop.getEndTime() != null;
+  }
+
+  private long cellKey(TruckStop stop) {
+    var location = stop.getLocation();
+    return key(cell(location.getLatitude()), cell(location.getLongitude()));
+  }
+
+  private long cell(double degrees) {
+    return (long) Math.floor(degrees / cellDegrees);
+  }
+
+  private static long key(long latCell, long lngCell) {
+    return (latCell << 32) ^ (lngCell & 0xffffffffL);
+  }
+
+  private static long epochMillis(Instant instant) {
+    return instant.toEpochMilli();
+  }
+
+  /**
+   * The stops in one grid cell, as parallel arrays sorted by start time, along with the longest of their durations.
+   */
+  private static class Cell {
+    private final long[] starts;
+    private final long[] ends;
+    private final TruckStop[] stops;
+    private final long maxDuration;
+
+    private Cell(Collection<TruckStop> bucket) {
+      this.stops = bucket.toArray(new TruckStop[0]);
+      Arrays.sort(stops, Comparator.comparing(TruckStop::getStartTime));
+      int size = stops.length;
+      this.starts = new long[size];
+      this.ends = new long[size];
+      long longest = 0;
+      for (int i = 0; i < size; i++) {
+        starts[i] = epochMillis(stops[i].getStartTime()
+            .toInstant());
+        ends[i] = epochMillis(stops[i].getEndTime()
+            .toInstant());
+        longest = Math.max(longest, ends[i] - starts[i]);
+      }
+      this.maxDuration = longest;
+    }
+
+    private Cell with(TruckStop stop) {
+      var updated = new ArrayList<>(Arrays.asList(stops));
+      updated.add(stop);
+      return new Cell(updated);
+    }
+
+    /**
+     * Returns the cell without the stop, or null if that leaves it empty.
+     */
+    @Nullable
+    private Cell without(TruckStop stop) {
+      var updated = new ArrayList<>(Arrays.asList(stops));
+      if (!updated.removeIf(stop::equals)) {
+        return this;
+      }
+      return updated.isEmpty() ? null : new Cell(updated);
+    }
+
+    /**
+     * Adds the trucks of stops in this cell that match {@link TruckStop#activeDuring} at the time and are within the
+     * requested distance.
+     */
+    private void collectActive(long time, Location.ScalarDistanceRequest within, Set<Truck> trucks) {
+      // index of the first stop that starts after the time
+      int i = Arrays.binarySearch(starts, time);
+      if (i < 0) {
+        i = -i - 1;
+      } else {
+        while (i < starts.length && starts[i] == time) {
+          i++;
+        }
+      }
+      long earliestStart = time - maxDuration;
+      for (int j = i - 1; j >= 0 && starts[j] >= earliestStart; j--) {
+        if ((starts[j] == time || time < ends[j]) && within.milesOf(stops[j].getLocation())) {
+          trucks.add(stops[j].getTruck());
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,182 @@
+package foodtruck.services;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.google.common.base.Strings;
+import com.google.common.collect.ImmutableList;
+
+import foodtruck.models.Truck;
+import foodtruck.models.TwitterNotificationAccount;
+
+/**
+ * A local, case-insensitive index from Twitter handles to the trucks and notification accounts that use them.  The
+ * index is rebuilt from the suppliers on a schedule and swapped in atomically, so lookups are a single hash lookup
+ * and never block.  If a refresh fails the previous index stays in place.
+ */
+public class TwitterHandleIndex implements AutoCloseable {
+
+  private static final Logger log = Logger.getLogger(TwitterHandleIndex.class.getName());
+
+  private final Supplier<? extends Collection<Truck>> trucks;
+  private final Supplier<? extends Collection<TwitterNotificationAccount>> accounts;
+  private final Duration refreshInterval;
+  private final ScheduledExecutorService scheduler;
+  private final boolean ownsScheduler;
+  private volatile Snapshot snapshot;
+  private ScheduledFuture<?> refreshes;
+
+  private TwitterHandleIndex(Builder builder) {
+    this.trucks = builder.trucks;
+    this.accounts = builder.accounts;
+    this.refreshInterval = builder.refreshInterval;
+    this.ownsScheduler = builder.scheduler == null;
+    this.scheduler = ownsScheduler ? Executors.newSingleThreadScheduledExecutor(runnable -> {
+      var thread = new Thread(runnable, "twitter-handle-index");
+      thread.setDaemon(true);
+      return thread;
+    }) : builder.scheduler;
+  }
+
+  public static Builder builder(Supplier<? extends Collection<Truck>> trucks) {
+    return new Builder(trucks);
+  }
+
+  /**
+   * Loads the index and schedules the periodic refreshes.  The initial load happens on the calling thread, and any
+   * error from it is thrown.
+   */
+  public synchronized TwitterHandleIndex start() {
+    refresh();
+    if (refreshes == null) {
+      long millis = refreshInterval.toMillis();
+      refreshes = scheduler.scheduleWithFixedDelay(this::refreshQuietly, millis, millis, TimeUnit.MILLISECONDS);
+    }
+    return this;
+  }
+
+  /**
+   * Rebuilds the index from the suppliers and swaps it in.
+   */
+  public void refresh() {
+    snapshot = new Snapshot(trucks.get(), accounts.get());
+  }
+
+  /**
+   * Returns true once the index has been loaded.
+   */
+  public boolean isLoaded() {
+    return snapshot != null;
+  }
+
+  /**
+   * Returns the trucks with the specified handle (ignoring case and a leading "@").
+   */
+  public List<Truck> findTrucks(String twitterHandle) {
+    var current = snapshot;
+    return current == null ? List.of() : current.trucks.getOrDefault(key(twitterHandle), List.of());
+  }
+
+  /**
+   * Returns the notification account with the specified handle (ignoring case and a leading "@").
+   */
+  public Optional<TwitterNotificationAccount> findAccount(String twitterHandle) {
+    var current = snapshot;
+    return current == null ? Optional.empty() : Optional.ofNullable(current.accounts.get(key(twitterHandle)));
+  }
+
+  @Override
+  public synchronized void close() {
+    if (refreshes != null) {
+      refreshes.cancel(false);
+      refreshes = null;
+    }
+    if (ownsScheduler) {
+      scheduler.shutdown();
+    }
+  }
+
+  private void refreshQuietly() {
+    try {
+      refresh();
+    } catch (RuntimeException e) {
+      log.log(Level.WARNING, "Could not refresh Twitter handle index; keeping the previous one", e);
+    }
+  }
+
+  static String key(String twitterHandle) {
+    var handle = twitterHandle.trim();
+    if (handle.startsWith("@")) {
+      handle = handle.substring(1);
+    }
+    return handle.toLowerCase(Locale.US);
+  }
+
+  private static class Snapshot {
+    private final Map<String, List<Truck>> trucks;
+    private final Map<String, TwitterNotificationAccount> accounts;
+
+    private Snapshot(Collection<Truck> trucks, Collection<TwitterNotificationAccount> accounts) {
+      var byHandle = new HashMap<String, ImmutableList.Builder<Truck>>();
+      for (Truck truck : trucks) {
+        if (!Strings.isNullOrEmpty(truck.getTwitterHandle())) {
+          byHandle.computeIfAbsent(key(truck.getTwitterHandle()), handle -> ImmutableList.builder())
+              .add(truck);
+        }
+      }
+      this.trucks = new HashMap<>(byHandle.size() * 2);
+      byHandle.forEach((handle, builder) -> this.trucks.put(handle, builder.build()));
+      this.accounts = new HashMap<>(accounts.size() * 2);
+      for (TwitterNotificationAccount account : accounts) {
+        if (!Strings.isNullOrEmpty(account.getTwitterHandle())) {
+          this.accounts.putIfAbsent(key(account.getTwitterHandle()), account);
+        }
+      }
+    }
+  }
+
+  public static class Builder {
+    private final Supplier<? extends Collection<Truck>> trucks;
+    private Supplier<? extends Collection<TwitterNotificationAccount>> accounts = List::of;
+    private Duration refreshInterval = Duration.ofMinutes(5);
+    private ScheduledExecutorService scheduler;
+
+    private Builder(Supplier<? extends Collection<Truck>> trucks) {
+      this.trucks = trucks;
+    }
+
+    public Builder accounts(Supplier<? extends Collection<TwitterNotificationAccount>> accounts) {
+      this.accounts = accounts;
+      return this;
+    }
+
+    public Builder refreshInterval(Duration refreshInterval) {
+      this.refreshInterval = refreshInterval;
+      return this;
+    }
+
+    /**
+     * Runs refreshes on an existing scheduler instead of a dedicated daemon thread.
+     */
+    public Builder scheduler(ScheduledExecutorService scheduler) {
+      this.scheduler = scheduler;
+      return this;
+    }
+
+    public TwitterHandleIndex build() {
+      return new TwitterHandleIndex(this);
+    }
+  }
+}
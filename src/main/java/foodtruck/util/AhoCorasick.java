@@ -0,0 +1,172 @@
+package foodtruck.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.TreeMap;
+
+/**
+ * An Aho-Corasick automaton: finds every occurrence of any of a set of literal strings in a single pass over the
+ * text, however many strings there are.  Patterns are identified by their index in the list the automaton was built
+ * from.  Matching is exact and case-sensitive; callers that want case-insensitive matching should normalize both the
+ * patterns and the text.  Instances are immutable and safe to share between threads.
+ */
+public class AhoCorasick {
+
+  /**
+   * Receives matches from {@link #scan}.
+   */
+  public interface MatchListener {
+    /**
+     * @param pattern the index of the pattern that matched
+     * @param start   the index in the text where the match starts
+     * @param end     the index in the text just past the end of the match
+     */
+    void onMatch(int pattern, int start, int end);
+  }
+
+  private static final int[] NONE = new int[0];
+
+  private final int[] patternLengths;
+  // for each state, its outgoing edges as sorted labels and the states they lead to
+  private final char[][] labels;
+  private final int[][] targets;
+  private final int[] failure;
+  // the patterns that end at each state, and the next state down the failure chain that has any
+  private final int[][] outputs;
+  private final int[] outputLink;
+
+  private AhoCorasick(List<String> patterns) {
+    this.patternLengths = patterns.stream()
+        .mapToInt(String::length)
+        .toArray();
+    var edges = new ArrayList<TreeMap<Character, Integer>>();
+    var ends = new ArrayList<List<Integer>>();
+    edges.add(new TreeMap<>());
+    ends.add(new ArrayList<>());
+    for (int p = 0; p < patterns.size(); p++) {
+      var pattern = patterns.get(p);
+      if (pattern.isEmpty()) {
+        continue;
+      }
+      int state = 0;
+      for (int i = 0; i < pattern.length(); i++) {
+        var next = edges.get(state)
+            .get(pattern.charAt(i));
+        if (next == null) {
+          next = edges.size();
+          edges.get(state)
+              .put(pattern.charAt(i), next);
+          edges.add(new TreeMap<>());
+          ends.add(new ArrayList<>());
+        }
+        state = next;
+      }
+      ends.get(state)
+          .add(p);
+    }
+    int size = edges.size();
+    this.labels = new char[size][];
+    this.targets = new int[size][];
+    for (int state = 0; state < size; state++) {
+      var stateEdges = edges.get(state);
+      labels[state] = new char[stateEdges.size()];
+      targets[state] = new int[stateEdges.size()];
+      int i = 0;
+      for (var edge : stateEdges.entrySet()) {
+        labels[state][i] = edge.getKey();
+        targets[state][i++] = edge.getValue();
+      }
+    }
+    this.failure = new int[size];
+    this.outputs = new int[size][];
+    this.outputLink = new int[size];
+    outputs[0] = NONE;
+    outputLink[0] = -1;
+    // breadth-first, so every state's failure target is finished before the state itself
+    var queue = new ArrayDeque<Integer>();
+    for (int child : targets[0]) {
+      queue.add(child);
+    }
+    while (!queue.isEmpty()) {
+      int state = queue.poll();
+      outputs[state] = ends.get(state)
+          .stream()
+          .mapToInt(Integer::intValue)
+          .toArray();
+      int fail = failure[state];
+      outputLink[state] = outputs[fail].length > 0 ? fail : outputLink[fail];
+      for (int i = 0; i < labels[state].length; i++) {
+        int child = targets[state][i];
+        int candidate = failure[state];
+        int next;
+        while ((next = transition(candidate, labels[state][i])) < 0 && candidate != 0) {
+          candidate = failure[candidate];
+        }
+        failure[child] = next < 0 ? 0 : next;
+        queue.add(child);
+      }
+    }
+  }
+
+  public static AhoCorasick of(List<String> patterns) {
+    return new AhoCorasick(patterns);
+  }
+
+  public int patternCount() {
+    return patternLengths.length;
+  }
+
+  /**
+   * Reports every occurrence of every pattern in the text, in order of where they end.
+   */
+  public void scan(CharSequence text, MatchListener listener) {
+    int state = 0;
+    for (int i = 0; i < text.length(); i++) {
+      state = step(state, text.charAt(i));
+      for (int out = outputs[state].length > 0 ? state : outputLink[state]; out > 0; out = outputLink[out]) {
+        for (int pattern : outputs[out]) {
+          listener.onMatch(pattern, i + 1 - patternLengths[pattern], i + 1);
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns the set of patterns that occur anywhere in the text.
+   */
+  public BitSet matches(CharSequence text) {
+    var found = new BitSet(patternLengths.length);
+    scan(text, (pattern, start, end) -> found.set(pattern));
+    return found;
+  }
+
+  /**
+   * Returns true if any pattern occurs in the text, stopping at the first one found.
+   */
+  public boolean containsAny(CharSequence text) {
+    int state = 0;
+    for (int i = 0; i < text.length(); i++) {
+      state = step(state, text.charAt(i));
+      if (outputs[state].length > 0 || outputLink[state] > 0) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private int step(int state, char c) {
+    int next;
+    while ((next = transition(state, c)) < 0 && state != 0) {
+      state = failure[state];
+    }
+    return next < 0 ? 0 : next;
+  }
+
+  private int transition(int state, char c) {
+    int i = Arrays.binarySearch(labels[state], c);
+    return i < 0 ? -1 : targets[state][i];
+  }
+}
@@ -0,0 +1,75 @@
+package foodtruck.util;
+
+import java.time.Clock;
+import java.time.Duration;
+
+/**
+ * A circuit breaker that opens after a run of consecutive failures.  While open, calls fail fast; once the open
+ * period has elapsed a single trial call is let through, and its outcome decides whether the breaker closes again or
+ * stays open for another period.
+ */
+public class CircuitBreaker {
+
+  public enum State {
+    CLOSED, OPEN, HALF_OPEN
+  }
+
+  private final int failureThreshold;
+  private final long openMillis;
+  private final Clock clock;
+  private State state = State.CLOSED;
+  private int consecutiveFailures;
+  private long openedAt;
+
+  public CircuitBreaker(int failureThreshold, Duration openDuration, Clock clock) {
+    this.failureThreshold = failureThreshold;
+    this.openMillis = openDuration.toMillis();
+    this.clock = clock;
+  }
+
+  /**
+   * Returns true if a call may be made now.
+   */
+  public synchronized boolean allowRequest() {
+    switch (state) {
+      case CLOSED:
+        return true;
+      case OPEN:
+        if (clock.millis() - openedAt >= openMillis) {
+          state = State.HALF_OPEN;
+          return true;
+        }
+        return false;
+      default:
+        // a trial call is already in flight
+        return false;
+    }
+  }
+
+  public synchronized void onSuccess() {
+    consecutiveFailures = 0;
+    state = State.CLOSED;
+  }
+
+  public synchronized void onFailure() {
+    consecutiveFailures++;
+    if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+      state = State.OPEN;
+      openedAt = clock.millis();
+    }
+  }
+
+  /**
+   * Called when a call was abandoned without an outcome (e.g. cancelled).  If it was the trial call, the next call
+   * becomes the trial instead.
+   */
+  public synchronized void onAbandoned() {
+    if (state == State.HALF_OPEN) {
+      state = State.OPEN;
+    }
+  }
+
+  public synchronized State getState() {
+    return state;
+  }
+}
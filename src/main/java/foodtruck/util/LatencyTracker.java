@@ -0,0 +1,43 @@
+package foodtruck.util;
+
+import java.util.Arrays;
+import java.util.OptionalLong;
+
+/**
+ * Keeps the most recent call latencies in a ring buffer so that percentiles can be estimated.
+ */
+public class LatencyTracker {
+
+  private final long[] samples;
+  private final int minimumSamples;
+  private int next;
+  private int count;
+
+  public LatencyTracker(int windowSize, int minimumSamples) {
+    this.samples = new long[windowSize];
+    this.minimumSamples = minimumSamples;
+  }
+
+  public synchronized void record(long latencyMillis) {
+    samples[next] = latencyMillis;
+    next = (next + 1) % samples.length;
+    count = Math.min(count + 1, samples.length);
+  }
+
+  /**
+   * Returns the latency at the specified percentile (0 to 1) over the window, or empty if too few calls have been
+   * recorded to say.
+   */
+  public OptionalLong percentile(double percentile) {
+    long[] copy;
+    synchronized (this) {
+      if (count < minimumSamples) {
+        return OptionalLong.empty();
+      }
+      copy = Arrays.copyOf(samples, count);
+    }
+    Arrays.sort(copy);
+    int index = (int) Math.min(copy.length - 1, Math.ceil(percentile * copy.length) - 1);
+    return OptionalLong.of(copy[Math.max(0, index)]);
+  }
+}
@@ -0,0 +1,92 @@
+package foodtruck.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Utilities for normalizing location names so that trivially different spellings map to the same key.
+ */
+public class LocationNames {
+  private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+  private static final Pattern AMPERSAND = Pattern.compile("\\s*&\\s*");
+  private static final Pattern NON_ALPHANUMERIC = Pattern.compile("[^a-z0-9]+");
+  // trailing comma-separated parts that just say where in the world the place is
+  private static final Pattern REGION_SUFFIX = Pattern.compile(
+      "chicago|il|illinois|usa|us|united states|(il )?\\d{5}(-\\d{4})?");
+
+  private static final Map<String, String> ABBREVIATIONS = Map.ofEntries(Map.entry("n", "north"),
+      Map.entry("s", "south"), Map.entry("e", "east"), Map.entry("w", "west"), Map.entry("st", "street"),
+      Map.entry("ave", "avenue"), Map.entry("av", "avenue"), Map.entry("blvd", "boulevard"), Map.entry("dr", "drive"),
+      Map.entry("rd", "road"), Map.entry("pl", "place"), Map.entry("pkwy", "parkway"), Map.entry("ct", "court"),
+      Map.entry("ln", "lane"), Map.entry("sq", "square"));
+
+  private LocationNames() {
+  }
+
+  /**
+   * Lower-cases the name, trims it and collapses runs of whitespace into a single space.
+   */
+  public static String normalize(String name) {
+    return WHITESPACE.matcher(name.trim()
+        .toLowerCase(Locale.US))
+        .replaceAll(" ");
+  }
+
+  /**
+   * Reduces a name to a form that is the same for the common ways of writing one place.  On top of
+   * {@link #normalize}: "&amp;" becomes "and", trailing ", Chicago, IL", zip code and ", USA" parts are dropped,
+   * punctuation is removed, common street abbreviations ("W", "Ave", "St") are spelled out, and the two sides of an
+   * intersection are put in alphabetical order.  So
+   * "Clark &amp; Monroe" and "Monroe and Clark, Chicago, IL 60603" both become "clark and monroe".
+   */
+  public static String canonicalize(String name) {
+    var parts = new ArrayList<>(Arrays.asList(AMPERSAND.matcher(normalize(name))
+        .replaceAll(" and ")
+        .split(",")));
+    while (parts.size() > 1 && REGION_SUFFIX.matcher(parts.get(parts.size() - 1)
+        .trim())
+        .matches()) {
+      parts.remove(parts.size() - 1);
+    }
+    return orderIntersection(expand(String.join(" ", parts)));
+  }
+
+  /**
+   * Splits free text, such as a tweet, into the words {@link #canonicalize} would use: lower-cased, with "&amp;" as
+   * "and", punctuation dropped and street abbreviations spelled out.  Unlike {@link #canonicalize} nothing is dropped
+   * or reordered, so names can be found in the text by their canonical form.
+   */
+  public static List<String> words(String text) {
+    return expand(AMPERSAND.matcher(normalize(text))
+        .replaceAll(" and "));
+  }
+
+  private static List<String> expand(String text) {
+    var stripped = NON_ALPHANUMERIC.matcher(text)
+        .replaceAll(" ")
+        .trim();
+    if (stripped.isEmpty()) {
+      return List.of();
+    }
+    var tokens = stripped.split(" ");
+    for (int i = 0; i < tokens.length; i++) {
+      tokens[i] = ABBREVIATIONS.getOrDefault(tokens[i], tokens[i]);
+    }
+    return Arrays.asList(tokens);
+  }
+
+  private static String orderIntersection(List<String> tokens) {
+    var words = String.join(" ", tokens);
+    int and = tokens.indexOf("and");
+    if (and <= 0 || and == tokens.size() - 1 || tokens.lastIndexOf("and") != and) {
+      return words;
+    }
+    var first = String.join(" ", tokens.subList(0, and));
+    var second = String.join(" ", tokens.subList(and + 1, tokens.size()));
+    return first.compareTo(second) <= 0 ? words : second + " and " + first;
+  }
+}
@@ -0,0 +1,37 @@
+package foodtruck.util;
+
+import java.util.regex.Pattern;
+
+import com.google.common.base.Throwables;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+/**
+ * A cache of compiled regular expressions, so the many trucks that share a rule (and the same truck deserialized over
+ * and over) don't each compile their own copy.  Compiled patterns are immutable and safe to share.
+ */
+public class Patterns {
+  private static final LoadingCache<String, Pattern> CACHE = CacheBuilder.newBuilder()
+      .maximumSize(10_000)
+      .build(CacheLoader.from(Pattern::compile));
+
+  private Patterns() {
+  }
+
+  /**
+   * Returns the compiled pattern for the regex, compiling it only if it isn't cached already.
+   *
+   * @throws java.util.regex.PatternSyntaxException if the regex is invalid
+   */
+  public static Pattern compile(String regex) {
+    try {
+      return CACHE.getUnchecked(regex);
+    } catch (UncheckedExecutionException e) {
+      // the cache wraps whatever the loader throws; callers expect the PatternSyntaxException itself
+      Throwables.throwIfUnchecked(e.getCause());
+      throw e;
+    }
+  }
+}
@@ -0,0 +1,134 @@
+package foodtruck.util;
+
+import java.util.Locale;
+
+/**
+ * A simple phonetic encoding for matching names that sound alike but are spelled differently, such as a voice
+ * assistant's transcription of a truck name.  It is in the spirit of Metaphone but much smaller: common spellings of
+ * the same sound are folded together, vowels after the first letter are dropped, and repeated sounds are collapsed.
+ * Each word is encoded separately and the codes are joined with spaces.
+ */
+public class Phonetics {
+
+  private Phonetics() {
+  }
+
+  public static String encode(String text) {
+    var code = new StringBuilder(text.length());
+    for (String word : text.toLowerCase(Locale.US)
+        .split("[^a-z0-9]+")) {
+      if (word.isEmpty()) {
+        continue;
+      }
+      if (code.length() > 0) {
+        code.append(' ');
+      }
+      encodeWord(word, code);
+    }
+    return code.toString();
+  }
+
+  private static void encodeWord(String word, StringBuilder code) {
+    if (word.startsWith("kn") || word.startsWith("gn") || word.startsWith("pn") || word.startsWith("wr")) {
+      word = word.substring(1);
+    } else if (word.startsWith("x")) {
+      word = "s" + word.substring(1);
+    }
+    int start = code.length();
+    char last = 0;
+    for (int i = 0; i < word.length(); i++) {
+      char c = word.charAt(i);
+      char next = i + 1 < word.length() ? word.charAt(i + 1) : 0;
+      char sound;
+      switch (c) {
+        case 'a':
+        case 'e':
+        case 'i':
+        case 'o':
+        case 'u':
+          // vowels only count at the start of a word, and then they all sound alike
+          sound = i == 0 ? 'a' : 0;
+          break;
+        case 'b':
+          sound = i > 0 && i == word.length() - 1 && word.charAt(i - 1) == 'm' ? 0 : 'b';
+          break;
+        case 'c':
+          if (next == 'h') {
+            sound = 'x';
+            i++;
+          } else if (next == 'i' || next == 'e' || next == 'y') {
+            sound = 's';
+          } else {
+            sound = 'k';
+          }
+          break;
+        case 'd':
+          sound = next == 'g' ? 'j' : 't';
+          break;
+        case 'g':
+          if (next == 'h') {
+            sound = i == 0 ? 'k' : 0;
+            i++;
+          } else if (next == 'i' || next == 'e' || next == 'y') {
+            sound = 'j';
+          } else {
+            sound = 'k';
+          }
+          break;
+        case 'h':
+          sound = i == 0 ? 'h' : 0;
+          break;
+        case 'p':
+          if (next == 'h') {
+            sound = 'f';
+            i++;
+          } else {
+            sound = 'p';
+          }
+          break;
+        case 'q':
+          sound = 'k';
+          break;
+        case 's':
+          if (next == 'h') {
+            sound = 'x';
+            i++;
+          } else {
+            sound = 's';
+          }
+          break;
+        case 't':
+          if (next == 'h') {
+            sound = '0';
+            i++;
+          } else {
+            sound = 't';
+          }
+          break;
+        case 'v':
+          sound = 'f';
+          break;
+        case 'w':
+        case 'y':
+          sound = i == 0 ? c : 0;
+          break;
+        case 'x':
+          code.append('k');
+          sound = 's';
+          break;
+        case 'z':
+          sound = 's';
+          break;
+        default:
+          sound = c;
+      }
+      if (sound != 0 && sound != last) {
+        code.append(sound);
+      }
+      last = sound;
+    }
+    if (code.length() == start) {
+      code.append(word.charAt(0));
+    }
+  }
+}
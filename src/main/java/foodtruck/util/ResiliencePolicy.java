@@ -0,0 +1,287 @@
+package foodtruck.util;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Wraps calls to an upstream service with an overall deadline, bounded retries with jittered exponential backoff,
+ * hedged requests and a circuit breaker.  Each upstream should get its own policy, since the circuit breaker and the
+ * latency statistics used for hedging are kept per policy.
+ */
+public class ResiliencePolicy {
+
+  // times deadlines and hedges; the work they trigger runs elsewhere
+  private static final ScheduledThreadPoolExecutor DEADLINES = new ScheduledThreadPoolExecutor(1, runnable -> {
+    var thread = new Thread(runnable, "resilience-deadlines");
+    thread.setDaemon(true);
+    return thread;
+  });
+
+  static {
+    DEADLINES.setRemoveOnCancelPolicy(true);
+  }
+
+  private final Duration deadline;
+  private final int maxRetries;
+  private final long initialBackoffMillis;
+  private final long maxBackoffMillis;
+  private final double hedgePercentile;
+  private final CircuitBreaker circuitBreaker;
+  private final LatencyTracker latencies;
+
+  private ResiliencePolicy(Builder builder) {
+    this.deadline = builder.deadline;
+    this.maxRetries = builder.maxRetries;
+    this.initialBackoffMillis = builder.initialBackoff.toMillis();
+    this.maxBackoffMillis = builder.maxBackoff.toMillis();
+    this.hedgePercentile = builder.hedgePercentile;
+    this.circuitBreaker = new CircuitBreaker(builder.failureThreshold, builder.openDuration, builder.clock);
+    this.latencies = new LatencyTracker(builder.latencyWindow, builder.minimumLatencySamples);
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  public CircuitBreaker getCircuitBreaker() {
+    return circuitBreaker;
+  }
+
+  /**
+   * Runs the call under this policy.
+   *
+   * @param call      starts one attempt of the call
+   * @param retryable true if failed attempts may be retried (i.e. the call is idempotent)
+   * @param hedgeable true if a second attempt may be started while the first is still running; the loser's result is
+   *                  discarded, so this should only be set for calls whose results don't hold resources
+   */
+  public <T> CompletableFuture<T> execute(Supplier<CompletableFuture<T>> call, boolean retryable, boolean hedgeable) {
+    var execution = new Execution<T>();
+    var result = execution.result;
+    // cancelled as soon as the call finishes, so the timer doesn't keep the call's state reachable until the deadline
+    var timer = DEADLINES.schedule(() -> expire(execution), deadline.toMillis(), TimeUnit.MILLISECONDS);
+    result.whenComplete((value, e) -> {
+      timer.cancel(false);
+      execution.attempts.forEach(attempt -> attempt.cancel(true));
+    });
+    attempt(call, retryable, hedgeable, 0, execution);
+    return result;
+  }
+
+  /**
+   * Fails the call for running past its deadline.  If an attempt was still waiting on the upstream, that counts as a
+   * failure for the circuit breaker, and the attempts cancelled because of it aren't counted again.
+   */
+  private <T> void expire(Execution<T> execution) {
+    boolean inFlight = execution.attempts.stream()
+        .anyMatch(attempt -> !attempt.isDone());
+    if (execution.result.isDone()) {
+      return;
+    }
+    execution.expired = true;
+    if (inFlight) {
+      // recorded before the result completes, so callers see the breaker's state including this failure
+      circuitBreaker.onFailure();
+    }
+    execution.result.completeExceptionally(
+        new ServiceException("Deadline of " + deadline + " exceeded", new TimeoutException()));
+  }
+
+  private <T> void attempt(Supplier<CompletableFuture<T>> call, boolean retryable, boolean hedgeable, int retry,
+      Execution<T> execution) {
+    var result = execution.result;
+    if (result.isDone()) {
+      return;
+    }
+    if (!circuitBreaker.allowRequest()) {
+      result.completeExceptionally(new ServiceException("Circuit breaker is open; failing fast"));
+      return;
+    }
+    var outcome = hedgeable ? hedged(call, execution) : start(call, execution);
+    outcome.whenComplete((value, e) -> {
+      if (e == null) {
+        result.complete(value);
+        return;
+      }
+      var cause = unwrap(e);
+      if (retryable && retry < maxRetries && isRetryable(cause) && !result.isDone()) {
+        CompletableFuture.delayedExecutor(backoff(retry), TimeUnit.MILLISECONDS)
+            .execute(() -> attempt(call, retryable, hedgeable, retry + 1, execution));
+      } else {
+        result.completeExceptionally(cause);
+      }
+    });
+  }
+
+  /**
+   * Starts the call, and starts it a second time if the first attempt is still running once it's slower than the
+   * hedging percentile.  Whichever attempt succeeds first wins; the outcome only fails once every attempt started has
+   * failed, so a first attempt that fails before the hedge is due fails the outcome at once and no hedge is sent.
+   */
+  private <T> CompletableFuture<T> hedged(Supplier<CompletableFuture<T>> call, Execution<T> execution) {
+    var hedgeAfter = hedgePercentile < 1 ? latencies.percentile(hedgePercentile) : OptionalLong.empty();
+    if (hedgeAfter.isEmpty()) {
+      return start(call, execution);
+    }
+    var winner = new CompletableFuture<T>();
+    // attempts still running; once it drops to zero no more are started
+    var outstanding = new AtomicInteger(1);
+    Runnable launch = () -> start(call, execution).whenComplete((value, e) -> {
+      if (e == null) {
+        winner.complete(value);
+      } else if (outstanding.decrementAndGet() == 0) {
+        winner.completeExceptionally(e);
+      }
+    });
+    launch.run();
+    var hedge = DEADLINES.schedule(() -> CompletableFuture.runAsync(() -> {
+      if (winner.isDone() || outstanding.getAndUpdate(running -> running == 0 ? 0 : running + 1) == 0) {
+        return;
+      }
+      if (circuitBreaker.allowRequest()) {
+        launch.run();
+      } else if (outstanding.decrementAndGet() == 0) {
+        winner.completeExceptionally(new ServiceException("Circuit breaker is open; failing fast"));
+      }
+    }), hedgeAfter.getAsLong(), TimeUnit.MILLISECONDS);
+    winner.whenComplete((value, e) -> hedge.cancel(false));
+    return winner;
+  }
+
+  private <T> CompletableFuture<T> start(Supplier<CompletableFuture<T>> call, Execution<T> execution) {
+    long started = System.nanoTime();
+    CompletableFuture<T> attempt;
+    try {
+      attempt = call.get();
+    } catch (RuntimeException e) {
+      attempt = CompletableFuture.failedFuture(e);
+    }
+    execution.attempts.add(attempt);
+    return attempt.whenComplete((value, e) -> {
+      if (e == null) {
+        latencies.record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        circuitBreaker.onSuccess();
+      } else if (isRetryable(unwrap(e))) {
+        circuitBreaker.onFailure();
+      } else if (unwrap(e) instanceof CancellationException) {
+        if (!execution.expired) {
+          circuitBreaker.onAbandoned();
+        }
+      } else {
+        // the upstream answered, it just didn't like the request
+        circuitBreaker.onSuccess();
+      }
+    });
+  }
+
+  private long backoff(int retry) {
+    long ceiling = Math.min(maxBackoffMillis, initialBackoffMillis << Math.min(retry, 20));
+    return ThreadLocalRandom.current()
+        .nextLong(ceiling + 1);
+  }
+
+  private static boolean isRetryable(Throwable e) {
+    return e instanceof ServiceException && ((ServiceException) e).isRetryable();
+  }
+
+  private static Throwable unwrap(Throwable e) {
+    Throwable cause = e;
+    while (cause instanceof CompletionException && cause.getCause() != null) {
+      cause = cause.getCause();
+    }
+    return cause;
+  }
+
+  /**
+   * The state of one call to {@link #execute}, shared by its attempts.
+   */
+  private static class Execution<T> {
+    private final CompletableFuture<T> result = new CompletableFuture<>();
+    private final List<CompletableFuture<T>> attempts = new CopyOnWriteArrayList<>();
+    private volatile boolean expired;
+  }
+
+  public static class Builder {
+    private Duration deadline = Duration.ofSeconds(20);
+    private int maxRetries = 2;
+    private Duration initialBackoff = Duration.ofMillis(100);
+    private Duration maxBackoff = Duration.ofSeconds(2);
+    private double hedgePercentile = 0.95;
+    private int latencyWindow = 256;
+    private int minimumLatencySamples = 20;
+    private int failureThreshold = 5;
+    private Duration openDuration = Duration.ofSeconds(30);
+    private Clock clock = Clock.systemUTC();
+
+    private Builder() {
+    }
+
+    /**
+     * The overall time limit for a call, including all retries and hedged attempts.
+     */
+    public Builder deadline(Duration deadline) {
+      this.deadline = deadline;
+      return this;
+    }
+
+    public Builder maxRetries(int maxRetries) {
+      this.maxRetries = maxRetries;
+      return this;
+    }
+
+    /**
+     * The backoff before the first retry; it doubles for each retry after that, up to the maximum.  Each delay is
+     * chosen uniformly at random between zero and the current backoff.
+     */
+    public Builder backoff(Duration initialBackoff, Duration maxBackoff) {
+      this.initialBackoff = initialBackoff;
+      this.maxBackoff = maxBackoff;
+      return this;
+    }
+
+    /**
+     * The latency percentile (0 to 1) after which a second, hedged attempt is started.  A value of 1 or more disables
+     * hedging.
+     */
+    public Builder hedgePercentile(double hedgePercentile) {
+      this.hedgePercentile = hedgePercentile;
+      return this;
+    }
+
+    public Builder latencyWindow(int latencyWindow, int minimumLatencySamples) {
+      this.latencyWindow = latencyWindow;
+      this.minimumLatencySamples = minimumLatencySamples;
+      return this;
+    }
+
+    /**
+     * Opens the circuit breaker after the specified number of consecutive failures, for the specified duration.
+     */
+    public Builder circuitBreaker(int failureThreshold, Duration openDuration) {
+      this.failureThreshold = failureThreshold;
+      this.openDuration = openDuration;
+      return this;
+    }
+
+    public Builder clock(Clock clock) {
+      this.clock = clock;
+      return this;
+    }
+
+    public ResiliencePolicy build() {
+      return new ResiliencePolicy(this);
+    }
+  }
+}
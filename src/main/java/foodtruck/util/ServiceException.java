@@ -1,20 +1,55 @@
 package foodtruck.util;
 
+import java.io.IOException;
+
 /**
  * Represents an exception calling an external service
  * @author aviolette@gmail.com
  * @since 10/22/11
  */
 public class ServiceException extends RuntimeException {
+  private final int statusCode;
+
   public ServiceException() {
     super();
+    this.statusCode = 0;
   }
 
   public ServiceException(Throwable throwable) {
     super(throwable);
+    this.statusCode = 0;
   }
 
   public ServiceException(String message) {
     super(message);
+    this.statusCode = 0;
+  }
+
+  public ServiceException(String message, Throwable throwable) {
+    super(message, throwable);
+    this.statusCode = 0;
+  }
+
+  public ServiceException(String message, int statusCode) {
+    super(message);
+    this.statusCode = statusCode;
+  }
+
+  /**
+   * The HTTP status code returned by the service, or 0 if the failure wasn't an error response.
+   */
+  public int getStatusCode() {
+    return statusCode;
+  }
+
+  /**
+   * Returns true if the failure looks transient (a server error, throttling or an I/O failure) so that the call may
+   * succeed if it's retried.
+   */
+  public boolean isRetryable() {
+    if (statusCode != 0) {
+      return statusCode >= 500 || statusCode == 429;
+    }
+    return getCause() instanceof IOException;
   }
 }
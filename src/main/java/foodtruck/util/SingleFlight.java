@@ -0,0 +1,191 @@
+package foodtruck.util;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Collapses concurrent calls for the same key into one.  The first caller for a key makes the call; callers that
+ * arrive while it is still in flight wait for, and share, its result.  Once the call completes the key is forgotten,
+ * so the next caller makes a fresh call.
+ *
+ * @param <K> the key identifying identical calls
+ * @param <V> the result type
+ */
+public class SingleFlight<K, V> {
+
+  private final ConcurrentMap<K, Flight> inFlight = new ConcurrentHashMap<>();
+  private final UnaryOperator<V> share;
+
+  public SingleFlight() {
+    this(UnaryOperator.identity());
+  }
+
+  /**
+   * @param share applied to the result handed to each waiting caller, e.g. to give each one its own copy of a mutable
+   *              collection
+   */
+  public SingleFlight(UnaryOperator<V> share) {
+    this.share = share;
+  }
+
+  /**
+   * Makes the call on the current thread, or waits for an identical call that's already in flight.
+   */
+  public V execute(K key, Supplier<V> call) {
+    while (true) {
+      var mine = new Flight(key);
+      var existing = inFlight.putIfAbsent(key, mine);
+      if (existing != null) {
+        var waiter = existing.join(share);
+        if (waiter != null) {
+          return join(waiter);
+        }
+        // everyone waiting on it gave up, so it's being cancelled; make a fresh call
+        inFlight.remove(key, existing);
+        continue;
+      }
+      try {
+        V value = call.get();
+        inFlight.remove(key, mine);
+        mine.result.complete(value);
+        return value;
+      } catch (Throwable e) {
+        // errors too, or later callers for the key would wait forever
+        inFlight.remove(key, mine);
+        mine.result.completeExceptionally(e);
+        throw e;
+      }
+    }
+  }
+
+  /**
+   * Starts the asynchronous call, or returns a future attached to an identical call that's already in flight.
+   * Cancelling the returned future doesn't affect the other callers, but once every caller waiting on a call has
+   * cancelled, the call itself is cancelled.
+   */
+  public CompletableFuture<V> executeAsync(K key, Supplier<CompletableFuture<V>> call) {
+    while (true) {
+      var mine = new Flight(key);
+      var existing = inFlight.putIfAbsent(key, mine);
+      if (existing != null) {
+        var waiter = existing.join(share);
+        if (waiter != null) {
+          return waiter;
+        }
+        inFlight.remove(key, existing);
+        continue;
+      }
+      var waiter = mine.attach(UnaryOperator.identity());
+      try {
+        mine.start(call.get());
+      } catch (RuntimeException e) {
+        inFlight.remove(key, mine);
+        mine.result.completeExceptionally(e);
+      } catch (Error e) {
+        inFlight.remove(key, mine);
+        mine.result.completeExceptionally(e);
+        throw e;
+      }
+      return waiter;
+    }
+  }
+
+  /**
+   * Returns the number of distinct calls currently in flight.
+   */
+  public int inFlight() {
+    return inFlight.size();
+  }
+
+  private static <V> V join(CompletableFuture<V> future) {
+    try {
+      return future.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      } else if (e.getCause() instanceof Error) {
+        throw (Error) e.getCause();
+      }
+      throw e;
+    }
+  }
+
+  /**
+   * One call in flight and the callers waiting on it.
+   */
+  private class Flight {
+    private final K key;
+    private final CompletableFuture<V> result = new CompletableFuture<>();
+    private volatile CompletableFuture<V> call;
+    // guarded by this; starts out counting the caller that makes the call
+    private int waiters = 1;
+    private boolean abandoned;
+
+    private Flight(K key) {
+      this.key = key;
+    }
+
+    private void start(CompletableFuture<V> call) {
+      this.call = call;
+      call.whenComplete((value, e) -> {
+        inFlight.remove(key, this);
+        if (e != null) {
+          result.completeExceptionally(e);
+        } else {
+          result.complete(value);
+        }
+      });
+      if (isAbandoned()) {
+        // the last waiter cancelled before the call had even been started
+        call.cancel(true);
+      }
+    }
+
+    /**
+     * Returns a future for another caller of this flight, or null if every caller has already given up on it.
+     */
+    private synchronized CompletableFuture<V> join(UnaryOperator<V> share) {
+      if (abandoned) {
+        return null;
+      }
+      waiters++;
+      return attach(share);
+    }
+
+    /**
+     * Returns a future for a caller already counted as waiting; cancelling it makes the caller leave.
+     */
+    private CompletableFuture<V> attach(UnaryOperator<V> share) {
+      var waiter = result.thenApply(share);
+      waiter.whenComplete((value, e) -> {
+        if (waiter.isCancelled()) {
+          leave();
+        }
+      });
+      return waiter;
+    }
+
+    private void leave() {
+      synchronized (this) {
+        if (--waiters > 0 || result.isDone()) {
+          return;
+        }
+        abandoned = true;
+      }
+      inFlight.remove(key, this);
+      var started = call;
+      if (started != null) {
+        started.cancel(true);
+      }
+      result.cancel(false);
+    }
+
+    private synchronized boolean isAbandoned() {
+      return abandoned;
+    }
+  }
+}
@@ -0,0 +1,44 @@
+package foodtruck.geo;
+
+import java.util.Random;
+
+import com.javadocmd.simplelatlng.LatLng;
+import com.javadocmd.simplelatlng.LatLngTool;
+import com.javadocmd.simplelatlng.util.LengthUnit;
+
+import org.junit.Test;
+
+import static com.google.common.truth.Truth.assertThat;
+
+public class GeoMathTest {
+
+  private final Random random = new Random(42);
+
+  @Test
+  public void distanceMatchesSimpleLatLng() {
+    for (int i = 0; i < 10000; i++) {
+      double lat1 = random.nextDouble() * 170 - 85, lng1 = random.nextDouble() * 360 - 180;
+      double lat2 = random.nextDouble() * 170 - 85, lng2 = random.nextDouble() * 360 - 180;
+      double expected = LatLngTool.distance(new LatLng(lat1, lng1), new LatLng(lat2, lng2), LengthUnit.MILE);
+      double actual = GeoMath.distanceMiles(GeoPoint.of(lat1, lng1), GeoPoint.of(lat2, lng2));
+      assertThat(Math.abs(expected - actual)).isLessThan(GeoMath.TOLERANCE_MILES);
+    }
+  }
+
+  @Test
+  public void withinMilesAgreesWithHaversine() {
+    for (int i = 0; i < 100000; i++) {
+      var a = GeoPoint.of(41.7 + random.nextDouble() * 0.4, -87.9 + random.nextDouble() * 0.4);
+      var b = GeoPoint.of(41.7 + random.nextDouble() * 0.4, -87.9 + random.nextDouble() * 0.4);
+      double miles = random.nextDouble() * 10;
+      assertThat(GeoMath.withinMiles(a, b, miles)).isEqualTo(GeoMath.distanceMiles(a, b) < miles);
+    }
+  }
+
+  @Test
+  public void withinMilesAcrossTheAntimeridian() {
+    var a = GeoPoint.of(0, 179.999);
+    var b = GeoPoint.of(0, -179.999);
+    assertThat(GeoMath.withinMiles(a, b, 1)).isTrue();
+  }
+}
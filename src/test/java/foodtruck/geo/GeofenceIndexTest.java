@@ -0,0 +1,151 @@
+package foodtruck.geo;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import foodtruck.models.Location;
+
+import static com.google.common.truth.Truth.assertThat;
+
+public class GeofenceIndexTest {
+
+  private final Random random = new Random(17);
+
+  @Test
+  public void radiusAndRadiateToAreBothMiles() {
+    var index = new GeofenceIndex();
+    index.add(fence("daley", 41.883857, -87.630028, 0.25, 0));
+    index.add(fence("ohare", 41.978, -87.904, 0, 2));
+    // about 0.2 and 0.3 miles north of Daley Plaza
+    assertThat(names(index.containing(point(41.886757, -87.630028)))).containsExactly("daley");
+    assertThat(names(index.containing(point(41.888200, -87.630028)))).isEmpty();
+    // about 1.5 and 2.5 miles east of O'Hare
+    assertThat(names(index.containing(point(41.978, -87.8746)))).containsExactly("ohare");
+    assertThat(names(index.containing(point(41.978, -87.8550)))).isEmpty();
+  }
+
+  @Test
+  public void findsFencesFromNeighbouringCells() {
+    // a fence centered on a cell corner reaches into the four cells around it
+    double cellDegrees = 1 / (GeoMath.EARTH_RADIUS_MILES * Math.toRadians(1));
+    var index = new GeofenceIndex(1);
+    double latitude = Math.round(41.88 / cellDegrees) * cellDegrees;
+    double longitude = -180 + Math.round(92.37 / cellDegrees) * cellDegrees;
+    index.add(fence("corner", latitude, longitude, 0.5, 0));
+    for (double[] offset : new double[][] {{0, 0}, {0.3, 0.3}, {0.3, -0.3}, {-0.3, 0.3}, {-0.3, -0.3}}) {
+      var nearby = point(latitude + offset[0] * cellDegrees, longitude + offset[1] * cellDegrees);
+      assertThat(names(index.containing(nearby))).containsExactly("corner");
+    }
+  }
+
+  @Test
+  public void fencesWrapAroundTheAntimeridian() {
+    // 360 degrees isn't a whole number of 0.7 mile cells, so the last cell before the antimeridian is a narrow one
+    var index = new GeofenceIndex(0.7);
+    index.add(fence("dateline", -17.5, 179.9995, 0.1, 0));
+    // every point within a thousandth of a degree (under 0.07 miles) of the center, on either side of the antimeridian
+    for (int i = -10; i <= 10; i++) {
+      double longitude = 179.9995 + i * 0.0001;
+      var here = point(-17.5, longitude > 180 ? longitude - 360 : longitude);
+      assertThat(names(index.containing(here))).containsExactly("dateline");
+    }
+  }
+
+  @Test
+  public void containingMatchesCheckingEveryFence() {
+    for (double cellMiles : new double[] {0.5, 0.7, 3}) {
+      var index = new GeofenceIndex(cellMiles);
+      var fences = new ArrayList<Location>();
+      for (int i = 0; i < 500; i++) {
+        fences.add(fence("chicago" + i, 41.6 + random.nextDouble() / 2, -88 + random.nextDouble() / 2,
+            random.nextDouble() * (i % 10 == 0 ? 40 : 2), 0));
+        double offset = random.nextDouble() * 0.1;
+        fences.add(fence("pacific" + i, -17.6 + random.nextDouble() / 5, random.nextBoolean() ? 179.9 + offset :
+            -180 + offset, 0, 1 + random.nextInt(3)));
+      }
+      fences.forEach(index::add);
+      for (int i = 0; i < 500; i++) {
+        var here = i % 2 == 0 ? point(41.6 + random.nextDouble() / 2, -88 + random.nextDouble() / 2) :
+            point(-17.6 + random.nextDouble() / 5, random.nextBoolean() ? 179.9 + random.nextDouble() * 0.1 :
+                -180 + random.nextDouble() * 0.1);
+        var expected = new ArrayList<String>();
+        for (Location fence : fences) {
+          if (GeoMath.withinMiles(here.geoPoint(), fence.geoPoint(), Math.max(fence.getRadius(),
+              fence.getRadiateTo()))) {
+            expected.add(fence.getName());
+          }
+        }
+        assertThat(names(index.containing(here))).containsExactlyElementsIn(expected);
+      }
+    }
+  }
+
+  @Test
+  public void fencesOfAFewMilesAreNotCheckedByEveryLookup() {
+    var index = new GeofenceIndex();
+    for (int miles = 1; miles <= 10; miles++) {
+      index.add(fence("radiate" + miles, 41.88, -87.63, 0, miles));
+    }
+    assertThat(index.oversizedCount()).isEqualTo(0);
+    index.add(fence("chicagoland", 41.88, -87.63, 0, 60));
+    assertThat(index.oversizedCount()).isEqualTo(1);
+    // about 3.5 miles north
+    assertThat(names(index.containing(point(41.9307, -87.63)))).containsExactly("chicagoland", "radiate10",
+        "radiate4", "radiate5", "radiate6", "radiate7", "radiate8", "radiate9");
+  }
+
+  @Test
+  public void removesFencesOfEverySize() {
+    var index = new GeofenceIndex();
+    var fences = List.of(fence("daley", 41.883857, -87.630028, 0.25, 0), fence("ohare", 41.978, -87.904, 0, 5),
+        fence("chicagoland", 41.88, -87.63, 0, 60));
+    fences.forEach(index::add);
+    assertThat(names(index.containing(point(41.883857, -87.630028)))).containsExactly("chicagoland", "daley");
+    fences.forEach(index::remove);
+    assertThat(index.size()).isEqualTo(0);
+    assertThat(index.oversizedCount()).isEqualTo(0);
+    assertThat(index.containing(point(41.883857, -87.630028))).isEmpty();
+    assertThat(index.containing(point(41.978, -87.904))).isEmpty();
+  }
+
+  @Test
+  public void snapsToTheNearestContainingFence() {
+    var index = GeofenceIndex.of(List.of(fence("clark and monroe", 41.880598, -87.631035, 0.5, 0),
+        fence("daley", 41.883857, -87.630028, 0.5, 0), fence("navy pier", 41.891600, -87.606000, 0, 1)));
+    assertThat(index.snap(point(41.8835, -87.6301))
+        .get()
+        .getName()).isEqualTo("daley");
+    assertThat(index.snap(point(42.5, -87.6))
+        .isPresent()).isFalse();
+  }
+
+  private static List<String> names(List<Location> locations) {
+    var names = new ArrayList<String>();
+    for (Location location : locations) {
+      names.add(location.getName());
+    }
+    names.sort(null);
+    return names;
+  }
+
+  private static Location point(double latitude, double longitude) {
+    return Location.builder()
+        .name("point")
+        .lat(latitude)
+        .lng(longitude)
+        .build();
+  }
+
+  private static Location fence(String name, double latitude, double longitude, double radius, int radiateTo) {
+    return Location.builder()
+        .name(name)
+        .lat(latitude)
+        .lng(longitude)
+        .radius(radius)
+        .radiateTo(radiateTo)
+        .build();
+  }
+}
@@ -0,0 +1,93 @@
+package foodtruck.geo;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import foodtruck.models.Location;
+
+import static com.google.common.truth.Truth.assertThat;
+
+public class LocationTableTest {
+
+  private final Random random = new Random(13);
+
+  @Test
+  public void boundingBoxIncludesItsEdges() {
+    var table = LocationTable.of(List.of(location("inside", 41.5, -87.5), location("corner", 42, -87),
+        location("north", 42.000001, -87.5), location("west", 41.5, -88.000001)));
+    assertThat(names(table, table.withinBoundingBox(41, -88, 42, -87))).containsExactly("corner", "inside");
+  }
+
+  @Test
+  public void boundingBoxCanCrossTheAntimeridian() {
+    var table = LocationTable.of(List.of(location("fiji", -17.7, 178.1), location("samoa", -13.8, -171.8),
+        location("chicago", 41.9, -87.6), location("perth", -31.9, 115.9)));
+    assertThat(names(table, table.withinBoundingBox(-20, 170, -10, -170))).containsExactly("fiji", "samoa");
+  }
+
+  @Test
+  public void withinMilesMatchesCheckingEveryLocation() {
+    var locations = new ArrayList<Location>();
+    for (int i = 0; i < 2000; i++) {
+      locations.add(location("chicago" + i, 41.6 + random.nextDouble(), -88.2 + random.nextDouble()));
+      // and some either side of the antimeridian
+      double offset = random.nextDouble() * 0.5;
+      locations.add(location("pacific" + i, -18 + random.nextDouble(), random.nextBoolean() ? 179.5 + offset :
+          -180 + offset));
+    }
+    var table = LocationTable.of(locations);
+    for (Location here : List.of(location("loop", 41.88, -87.63), location("dateline", -17.5, 179.99),
+        location("dateline", -17.5, -179.99))) {
+      for (double miles : new double[] {0.5, 5, 40}) {
+        var expected = new ArrayList<String>();
+        for (Location location : locations) {
+          if (here.within(miles)
+              .milesOf(location)) {
+            expected.add(location.getName());
+          }
+        }
+        assertThat(names(table, table.withinMiles(here, miles))).containsExactlyElementsIn(expected);
+      }
+    }
+  }
+
+  @Test
+  public void rowsRebuildTheirLocations() {
+    var daley = Location.builder()
+        .key(42L)
+        .name("Daley Plaza")
+        .lat(41.883857)
+        .lng(-87.630028)
+        .radius(0.25)
+        .popular(true)
+        .valid(true)
+        .build();
+    var table = LocationTable.of(List.of(daley));
+    assertThat(table.key(0)).isEqualTo(42L);
+    var rebuilt = table.location(0);
+    assertThat(rebuilt.getName()).isEqualTo("Daley Plaza");
+    assertThat(rebuilt).isEqualTo(daley);
+    assertThat(rebuilt.isPopular()).isTrue();
+    assertThat(rebuilt.getRadius()).isEqualTo(0.25);
+  }
+
+  private static List<String> names(LocationTable table, int[] rows) {
+    var names = new ArrayList<String>();
+    for (int row : rows) {
+      names.add(table.name(row));
+    }
+    names.sort(null);
+    return names;
+  }
+
+  private static Location location(String name, double latitude, double longitude) {
+    return Location.builder()
+        .name(name)
+        .lat(latitude)
+        .lng(longitude)
+        .build();
+  }
+}
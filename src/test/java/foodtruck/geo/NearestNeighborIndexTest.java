@@ -0,0 +1,57 @@
+package foodtruck.geo;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+import foodtruck.models.Location;
+
+import static com.google.common.truth.Truth.assertThat;
+
+public class NearestNeighborIndexTest {
+
+  private final Random random = new Random(7);
+
+  @Test
+  public void nearestMatchesSortingByDistance() {
+    var locations = new ArrayList<Location>();
+    for (int i = 0; i < 2000; i++) {
+      locations.add(location("loc" + i, 41.6 + random.nextDouble(), -88.2 + random.nextDouble()));
+    }
+    var index = NearestNeighborIndex.ofLocations(locations);
+    for (int i = 0; i < 50; i++) {
+      var here = location("here", 41.6 + random.nextDouble(), -88.2 + random.nextDouble());
+      List<Location> expected = locations.stream()
+          .filter(location -> here.distanceFrom(location) < 5)
+          .sorted(Comparator.comparingDouble(here::distanceFrom))
+          .limit(10)
+          .collect(Collectors.toList());
+      var neighbors = index.nearest(here, 10, 5);
+      assertThat(neighbors.stream()
+          .map(NearestNeighborIndex.Neighbor::getItem)
+          .collect(Collectors.toList())).isEqualTo(expected);
+      for (var neighbor : neighbors) {
+        assertThat(Math.abs(neighbor.getMiles() - here.distanceFrom(neighbor.getItem()))).isLessThan(
+            GeoMath.TOLERANCE_MILES);
+      }
+    }
+  }
+
+  @Test
+  public void nearestOfEmptyIndex() {
+    var index = NearestNeighborIndex.ofLocations(List.of());
+    assertThat(index.nearest(location("here", 41.88, -87.63), 5)).isEmpty();
+  }
+
+  private static Location location(String name, double lat, double lng) {
+    return Location.builder()
+        .name(name)
+        .lat(lat)
+        .lng(lng)
+        .build();
+  }
+}
@@ -0,0 +1,122 @@
+package foodtruck.geo;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Optional;
+
+import org.junit.Test;
+
+import foodtruck.models.Location;
+
+import static com.google.common.truth.Truth.assertThat;
+
+public class ReverseGeocoderTest {
+
+  // the Loop, with Grant Park cut out of it
+  private static final String LOOP = feature("Loop", "Polygon",
+      "[" + ring(-87.64, 41.87, -87.62, 41.89) + "," + ring(-87.625, 41.875, -87.62, 41.885) + "]");
+  private static final String WEST_LOOP = feature("West Loop", "Polygon", "[" + ring(-87.66, 41.87, -87.64, 41.89) +
+      "]");
+  // overlaps the west half of the Loop
+  private static final String FINANCIAL_DISTRICT = feature("Financial District", "Polygon",
+      "[" + ring(-87.64, 41.875, -87.63, 41.885) + "]");
+  private static final String ISLANDS = feature("Islands", "MultiPolygon",
+      "[[" + ring(-87.60, 41.80, -87.59, 41.81) + "],[" + ring(-87.58, 41.80, -87.57, 41.81) + "]]");
+
+  @Test
+  public void holesAreOutside() {
+    var geocoder = neighborhoods(LOOP);
+    assertThat(geocoder.neighborhood(41.88, -87.63)).hasValue("Loop");
+    assertThat(geocoder.neighborhood(41.88, -87.6225)).isEqualTo(Optional.empty());
+    assertThat(geocoder.neighborhood(41.88, -87.65)).isEqualTo(Optional.empty());
+  }
+
+  @Test
+  public void gapsBetweenPolygonsAreOutside() {
+    var geocoder = neighborhoods(ISLANDS);
+    assertThat(geocoder.neighborhood(41.805, -87.595)).hasValue("Islands");
+    assertThat(geocoder.neighborhood(41.805, -87.585)).isEqualTo(Optional.empty());
+    assertThat(geocoder.neighborhood(41.805, -87.575)).hasValue("Islands");
+  }
+
+  @Test
+  public void boundariesAreInside() {
+    var geocoder = neighborhoods(LOOP);
+    // outer edge, outer corner, and the edge and corner of the hole
+    assertThat(geocoder.neighborhood(41.89, -87.63)).hasValue("Loop");
+    assertThat(geocoder.neighborhood(41.87, -87.64)).hasValue("Loop");
+    assertThat(geocoder.neighborhood(41.88, -87.625)).hasValue("Loop");
+    assertThat(geocoder.neighborhood(41.885, -87.62)).hasValue("Loop");
+  }
+
+  @Test
+  public void earlierRegionsWinWhereTheyOverlap() {
+    assertThat(neighborhoods(WEST_LOOP, LOOP).neighborhood(41.88, -87.64)).hasValue("West Loop");
+    assertThat(neighborhoods(LOOP, WEST_LOOP).neighborhood(41.88, -87.64)).hasValue("Loop");
+    assertThat(neighborhoods(FINANCIAL_DISTRICT, LOOP).neighborhood(41.88, -87.635)).hasValue("Financial District");
+    assertThat(neighborhoods(LOOP, FINANCIAL_DISTRICT).neighborhood(41.88, -87.635)).hasValue("Loop");
+  }
+
+  @Test
+  public void findsRegionsInABigIndex() {
+    // enough squares for several levels of the tree, added in an order unrelated to their positions
+    var squares = new ArrayList<String>();
+    for (int i = 0; i < 400; i++) {
+      int column = i * 7 % 20, row = i / 20;
+      double west = -88 + column * 0.01, south = 41.7 + row * 0.01;
+      squares.add(feature(column + "," + row, "Polygon", "[" + ring(west, south, west + 0.01, south + 0.01) + "]"));
+    }
+    var geocoder = neighborhoods(squares.toArray(new String[0]));
+    for (int column = 0; column < 20; column++) {
+      for (int row = 0; row < 20; row++) {
+        assertThat(geocoder.neighborhood(41.7 + (row + 0.5) * 0.01, -88 + (column + 0.5) * 0.01)).hasValue(
+            column + "," + row);
+      }
+    }
+    assertThat(geocoder.neighborhood(41.95, -87.5)).isEqualTo(Optional.empty());
+  }
+
+  @Test
+  public void enrichKeepsEverythingElse() {
+    var geocoder = ReverseGeocoder.builder()
+        .cities(geoJson(feature("Chicago", "Polygon", "[" + ring(-88, 41.6, -87.5, 42.1) + "]")), "name")
+        .neighborhoods(geoJson(LOOP), "name")
+        .build();
+    var location = Location.builder()
+        .name("Clark and Monroe, Chicago, IL")
+        .lat(41.880598)
+        .lng(-87.631035)
+        .imageUrl("https://example.com/clark-and-monroe.jpg")
+        .radius(0.25)
+        .build();
+    var enriched = geocoder.enrich(location);
+    assertThat(enriched.getCity()).isEqualTo("Chicago");
+    assertThat(enriched.getNeighborhood()).isEqualTo("Loop");
+    assertThat(enriched.getImageUrl()).isEqualTo("https://example.com/clark-and-monroe.jpg");
+    assertThat(enriched.getRadius()).isEqualTo(0.25);
+    assertThat(geocoder.enrich(enriched)).isSameInstanceAs(enriched);
+  }
+
+  private static ReverseGeocoder neighborhoods(String... features) {
+    return ReverseGeocoder.builder()
+        .neighborhoods(geoJson(features), "name")
+        .build();
+  }
+
+  private static InputStream geoJson(String... features) {
+    return new ByteArrayInputStream(("{\"type\":\"FeatureCollection\",\"features\":[" + String.join(",", features) +
+        "]}").getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static String feature(String name, String type, String coordinates) {
+    return "{\"type\":\"Feature\",\"properties\":{\"name\":\"" + name + "\"},\"geometry\":{\"type\":\"" + type +
+        "\",\"coordinates\":" + coordinates + "}}";
+  }
+
+  private static String ring(double west, double south, double east, double north) {
+    return String.format("[[%s,%s],[%s,%s],[%s,%s],[%s,%s],[%s,%s]]", west, south, east, south, east, north, west,
+        north, west, south);
+  }
+}
@@ -0,0 +1,58 @@
+package foodtruck.models;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+import static com.google.common.truth.Truth.assertThat;
+
+public class CategoryIndexTest {
+
+  private final Truck eggs = truck("eggs", "Breakfast", "Lunch", "Chicago");
+  private final Truck popup = truck("popup", "Breakfast", "Popup");
+  private final Truck tacos = truck("tacos", "Lunch", "Mexican");
+  private final CategoryIndex index = CategoryIndex.of(List.of(eggs, popup, tacos));
+
+  @Test
+  public void findsTrucksWithAndWithoutCategories() {
+    assertThat(ids(index.find(Set.of("Breakfast"), Set.of("Popup")))).containsExactly("eggs");
+    assertThat(ids(index.find(Set.of("Lunch"), Set.of()))).containsExactly("eggs", "tacos")
+        .inOrder();
+    assertThat(ids(index.find(Set.of(), Set.of("Lunch")))).containsExactly("popup");
+    assertThat(index.find(Set.of("Breakfast", "NeverSeenBefore"), Set.of())).isEmpty();
+    assertThat(index.count("Breakfast")).isEqualTo(2);
+  }
+
+  @Test
+  public void categoriesAreTestedByNumber() {
+    assertThat(eggs.isMatchesMorningStops()).isTrue();
+    assertThat(tacos.isMatchesMorningStops()).isFalse();
+    assertThat(popup.isPopupVendor()).isTrue();
+    assertThat(tacos.hasCategory("Mexican")).isTrue();
+    assertThat(eggs.publicCategories()).containsExactly("Breakfast");
+  }
+
+  @Test
+  public void publicCategoriesAreACopy() {
+    var categories = eggs.publicCategories();
+    categories.add("Tacos");
+    assertThat(eggs.publicCategories()).containsExactly("Breakfast");
+    assertThat(eggs.publicCategories()).isNotSameInstanceAs(eggs.publicCategories());
+  }
+
+  private static List<String> ids(List<Truck> trucks) {
+    return trucks.stream()
+        .map(Truck::getId)
+        .collect(Collectors.toList());
+  }
+
+  private static Truck truck(String id, String... categories) {
+    return Truck.builder()
+        .id(id)
+        .name(id)
+        .categories(Set.of(categories))
+        .build();
+  }
+}
@@ -0,0 +1,72 @@
+package foodtruck.models;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+import static com.google.common.truth.Truth.assertThat;
+
+public class FleetMatcherTest {
+
+  private static final List<Truck> FLEET = List.of(
+      // literal rules, some overlapping each other
+      truck("popups").matchOnlyIf("popup")
+          .build(), truck("pops").matchOnlyIf("pop")
+          .build(), truck("privates").matchOnlyIf("private event|wedding")
+          .build(), truck("nocatering").donotMatchIf("catering|popup")
+          .build(),
+      // upper case never matches the lower-cased tweet, whichever way it's run
+      truck("shouty").matchOnlyIf("Popup")
+          .build(),
+      // real regular expressions
+      truck("loop").matchOnlyIf("\\bloop\\b")
+          .build(), truck("lunchtoday").matchOnlyIf("lunch.*today")
+          .build(), truck("noprivate").donotMatchIf("priv(ate)? ev")
+          .build(),
+      // and no rule at all
+      truck("anything").build(), truck("blanks").matchOnlyIf("")
+          .donotMatchIf("")
+          .build());
+
+  private static final List<String> TWEETS = List.of("Popup at Clark and Monroe!", "POPUP today in the Loop",
+      "Serving lunch in the loop today", "Catering a wedding, back tomorrow", "pop over to the Loophole",
+      "Private Event tonight", "priv ev only", "Lunch at Daley Plaza", "", "Wedding popup catering in the LOOP");
+
+  @Test
+  public void matchesTheSameTrucksAsEachTrucksOwnRule() {
+    var matcher = FleetMatcher.of(FLEET);
+    for (String tweet : TWEETS) {
+      var expected = FLEET.stream()
+          .filter(truck -> truck.match(tweet))
+          .collect(Collectors.toList());
+      assertThat(matcher.matching(tweet)).containsExactlyElementsIn(expected)
+          .inOrder();
+    }
+  }
+
+  @Test
+  public void overlappingLiteralsAreAllFound() {
+    assertThat(ids(FleetMatcher.of(FLEET)
+        .matching("POPUP today"))).containsExactly("popups", "pops", "noprivate", "anything", "blanks")
+        .inOrder();
+  }
+
+  @Test
+  public void emptyFleetMatchesNothing() {
+    assertThat(FleetMatcher.of(List.of())
+        .matching("Popup at Clark and Monroe!")).isEmpty();
+  }
+
+  private static List<String> ids(List<Truck> trucks) {
+    return trucks.stream()
+        .map(Truck::getId)
+        .collect(Collectors.toList());
+  }
+
+  private static Truck.Builder truck(String id) {
+    return Truck.builder()
+        .id(id)
+        .name(id);
+  }
+}
@@ -0,0 +1,34 @@
+package foodtruck.models;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import static com.google.common.truth.Truth.assertThat;
+
+public class LocationBlacklistTest {
+
+  private final LocationBlacklist blacklist = LocationBlacklist.of(
+      List.of("Clark & Monroe", "*airport*", "navy pier*", "*plaza"));
+
+  @Test
+  public void matchesCanonicalNames() {
+    assertThat(blacklist.isBlacklisted("Monroe and Clark, Chicago, IL")).isTrue();
+    assertThat(blacklist.isBlacklisted("Clark and Madison")).isFalse();
+  }
+
+  @Test
+  public void matchesWildcardsByPosition() {
+    assertThat(blacklist.isBlacklisted("O'Hare Airport Cell Phone Lot")).isTrue();
+    assertThat(blacklist.isBlacklisted("Navy Pier, Chicago, IL")).isTrue();
+    assertThat(blacklist.isBlacklisted("Near Navy Pier")).isFalse();
+    assertThat(blacklist.isBlacklisted("Daley Plaza")).isTrue();
+    assertThat(blacklist.isBlacklisted("Plaza Del Lago")).isFalse();
+  }
+
+  @Test
+  public void compiledBlacklistsAreShared() {
+    assertThat(LocationBlacklist.of(List.of("Clark & Monroe", "*airport*", "navy pier*", "*plaza")))
+        .isSameInstanceAs(blacklist);
+  }
+}
@@ -7,6 +7,9 @@ import org.junit.Test;
 
 import foodtruck.json.Json;
 
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.fail;
+
 /**
  * @author andrew@andrewviolette.net
  * @since 8/4/20
@@ -37,4 +40,33 @@ public class LocationTest {
     String value = "[{\"key\":5797982880399360,\"name\":\"Roosevelt Collection\",\"valid\":true,\"description\":\"150 West Roosevelt Road, Chicago, IL\",\"url\":\"http://www.rooseveltcollection.com/\",\"eventSpecific\":false,\"radius\":0.0,\"popular\":false,\"justResolved\":false,\"autocomplete\":true,\"alias\":\"\",\"twitterHandle\":\"rclofts\",\"designatedStop\":false,\"hasBooze\":false,\"radiateTo\":0,\"phoneNumber\":\"\",\"email\":\"\",\"facebookUri\":\"\",\"closed\":false,\"imageUrl\":\"http://storage.googleapis.com/cftf_locationicons/5797982880399360-1550006040595.jpg\",\"eventCalendarUrl\":\"\",\"managerEmails\":[],\"alexaProvided\":false,\"blacklistedFromCalendarSearch\":false,\"city\":\"Chicago\",\"neighborhood\":\"Chicago Loop\",\"latitude\":41.868449999999996,\"longitude\":-87.632487}]";
     var locations = mapper.readValue(value, Location[].class);
   }
+
+  @Test
+  public void identicalLocationsAreInterned() throws JsonProcessingException {
+    ObjectMapper mapper = Json.provideInterningObjectMapper();
+    String value = "[{\"name\":\"Daley Plaza\",\"latitude\":41.883857,\"longitude\":-87.630028}," +
+        "{\"name\":\"Daley Plaza\",\"latitude\":41.883857,\"longitude\":-87.630028}," +
+        "{\"name\":\"Daley Plaza\",\"latitude\":41.883857,\"longitude\":-87.630028,\"radius\":0.5}]";
+    var locations = mapper.readValue(value, Location[].class);
+    assertThat(locations[0] == locations[1]).isTrue();
+    assertThat(locations[0] == locations[2]).isFalse();
+    assertThat(locations[0]).isEqualTo(locations[2]);
+    assertThat(locations[0].hashCode()).isEqualTo(locations[2].hashCode());
+    try {
+      locations[0].setRadius(1);
+      fail("expected interned locations to be unchangeable");
+    } catch (IllegalStateException expected) {
+    }
+  }
+
+  @Test
+  public void defaultMapperDoesNotShareLocations() throws JsonProcessingException {
+    String value = "[{\"name\":\"Daley Plaza\",\"latitude\":41.883857,\"longitude\":-87.630028}," +
+        "{\"name\":\"Daley Plaza\",\"latitude\":41.883857,\"longitude\":-87.630028}]";
+    var locations = Json.provideObjectMapper()
+        .readValue(value, Location[].class);
+    assertThat(locations[0] == locations[1]).isFalse();
+    locations[0].setRadius(1);
+    assertThat(locations[1].getRadius()).isEqualTo(0.0);
+  }
 }
@@ -0,0 +1,91 @@
+package foodtruck.services;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletionException;
+
+import org.junit.Test;
+
+import foodtruck.models.Location;
+import foodtruck.models.Truck;
+import foodtruck.util.ServiceException;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.fail;
+
+/**
+ * The default *Async methods of the service interfaces, which run the blocking calls on the common pool.
+ */
+public class AsyncDefaultsTest {
+
+  private static final Truck CAJUN = Truck.builder()
+      .id("thecajuncon")
+      .name("The Cajun Connoisseur")
+      .build();
+
+  private final TruckService trucks = new TruckService() {
+    @Override
+    public List<Truck> findTrucksWithGoogleCalendars() {
+      return List.of(CAJUN);
+    }
+
+    @Override
+    public List<Truck> findTrucksWithICalCalendars() {
+      return List.of();
+    }
+
+    @Override
+    public List<Truck> findByTwitterHandle(String twitterHandle) {
+      return twitterHandle.equals("thecajuncon") ? List.of(CAJUN) : List.of();
+    }
+
+    @Override
+    public Optional<Truck> findById(String truckId) {
+      if (truckId.equals("broken")) {
+        throw new ServiceException("Could not connect", 503);
+      }
+      return truckId.equals("thecajuncon") ? Optional.of(CAJUN) : Optional.empty();
+    }
+  };
+
+  @Test
+  public void truckServiceDefaultsDelegateToTheBlockingCalls() {
+    assertThat(trucks.findTrucksWithGoogleCalendarsAsync()
+        .join()).containsExactly(CAJUN);
+    assertThat(trucks.findTrucksWithICalCalendarsAsync()
+        .join()).isEmpty();
+    assertThat(trucks.findByTwitterHandleAsync("thecajuncon")
+        .join()).containsExactly(CAJUN);
+    assertThat(trucks.findByIdAsync("thecajuncon")
+        .join()).hasValue(CAJUN);
+    assertThat(trucks.findByIdAsync("nobody")
+        .join()
+        .isPresent()).isFalse();
+  }
+
+  @Test
+  public void failuresCompleteTheFutureExceptionally() {
+    var future = trucks.findByIdAsync("broken");
+    try {
+      future.join();
+      fail("expected a failure");
+    } catch (CompletionException e) {
+      assertThat(((ServiceException) e.getCause()).getStatusCode()).isEqualTo(503);
+    }
+  }
+
+  @Test
+  public void blockingCallsRunOffTheCallersThread() {
+    var caller = Thread.currentThread();
+    AddressExtractor addresses = (text, truckId) -> List.of(Thread.currentThread() == caller ? "caller" : "pool");
+    assertThat(addresses.parseAsync("Clark and Monroe", "thecajuncon")
+        .join()).containsExactly("pool");
+    GeoLocator locator = name -> Optional.of(Location.builder()
+        .name(Thread.currentThread() == caller ? "caller" : "pool")
+        .build());
+    assertThat(locator.broadSearchAsync("Clark and Monroe")
+        .join()
+        .get()
+        .getName()).isEqualTo("pool");
+  }
+}
@@ -0,0 +1,109 @@
+package foodtruck.services;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import foodtruck.models.Location;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.fail;
+
+public class CachingGeoLocatorTest {
+
+  private static final Location DALEY = Location.builder()
+      .name("Daley Plaza")
+      .lat(41.883857)
+      .lng(-87.630028)
+      .build();
+
+  private final GeoCacheFileTest.MutableClock clock = new GeoCacheFileTest.MutableClock();
+  private final AtomicInteger calls = new AtomicInteger();
+  private final GeoLocator delegate = name -> {
+    calls.incrementAndGet();
+    return name.equalsIgnoreCase("daley plaza") ? Optional.of(DALEY) : Optional.empty();
+  };
+  private Path path;
+
+  @Before
+  public void before() throws IOException {
+    path = Files.createTempFile("geocache", ".jsonl");
+  }
+
+  @After
+  public void after() throws IOException {
+    Files.deleteIfExists(path);
+  }
+
+  @Test
+  public void cachesByNormalizedName() {
+    var locator = CachingGeoLocator.builder(delegate)
+        .clock(clock)
+        .build();
+    assertThat(locator.broadSearch("Daley Plaza")).hasValue(DALEY);
+    assertThat(locator.broadSearch("  daley   PLAZA ")).hasValue(DALEY);
+    assertThat(calls.get()).isEqualTo(1);
+  }
+
+  @Test
+  public void cachesMissesForTheirOwnTtl() {
+    var locator = CachingGeoLocator.builder(delegate)
+        .ttl(Duration.ofDays(7))
+        .notFoundTtl(Duration.ofHours(1))
+        .clock(clock)
+        .build();
+    assertThat(locator.broadSearch("Nowhere")).isEqualTo(Optional.empty());
+    assertThat(locator.broadSearch("Nowhere")).isEqualTo(Optional.empty());
+    assertThat(locator.broadSearch("Daley Plaza")).hasValue(DALEY);
+    assertThat(calls.get()).isEqualTo(2);
+
+    clock.advance(90);
+    assertThat(locator.broadSearch("Nowhere")).isEqualTo(Optional.empty());
+    assertThat(locator.broadSearch("Daley Plaza")).hasValue(DALEY);
+    assertThat(calls.get()).isEqualTo(3);
+  }
+
+  @Test
+  public void fileTierSurvivesARestart() throws IOException {
+    var file = GeoCacheFile.open(path, clock);
+    var locator = CachingGeoLocator.builder(delegate)
+        .file(file)
+        .clock(clock)
+        .build();
+    assertThat(locator.broadSearch("Daley Plaza")).hasValue(DALEY);
+    assertThat(locator.broadSearch("Nowhere")).isEqualTo(Optional.empty());
+    file.close();
+
+    file = GeoCacheFile.open(path, clock);
+    locator = CachingGeoLocator.builder(name -> {
+      fail("should have been served from the file");
+      return Optional.empty();
+    })
+        .file(file)
+        .clock(clock)
+        .build();
+    assertThat(locator.broadSearch("Daley Plaza")).hasValue(DALEY);
+    assertThat(locator.broadSearch("Nowhere")).isEqualTo(Optional.empty());
+    file.close();
+  }
+
+  @Test
+  public void asyncLookupsShareTheCache() {
+    var locator = CachingGeoLocator.builder(delegate)
+        .clock(clock)
+        .build();
+    assertThat(locator.broadSearchAsync("Daley Plaza")
+        .join()).hasValue(DALEY);
+    assertThat(locator.broadSearch("Daley Plaza")).hasValue(DALEY);
+    assertThat(locator.broadSearchAsync("Daley Plaza")
+        .join()).hasValue(DALEY);
+    assertThat(calls.get()).isEqualTo(1);
+  }
+}
@@ -0,0 +1,136 @@
+package foodtruck.services;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import foodtruck.models.Truck;
+import foodtruck.util.ServiceException;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.fail;
+
+public class CachingTruckServiceTest {
+
+  private AtomicInteger calls;
+  private CachingTruckService service;
+
+  @Before
+  public void before() {
+    calls = new AtomicInteger();
+    var truck = Truck.builder()
+        .id("thecajuncon")
+        .name("The Cajun Connoisseur")
+        .twitterHandle("thecajuncon")
+        .build();
+    service = CachingTruckService.builder(new TruckService() {
+      @Override
+      public List<Truck> findTrucksWithGoogleCalendars() {
+        calls.incrementAndGet();
+        return List.of(truck);
+      }
+
+      @Override
+      public List<Truck> findTrucksWithICalCalendars() {
+        calls.incrementAndGet();
+        return List.of();
+      }
+
+      @Override
+      public List<Truck> findByTwitterHandle(String twitterHandle) {
+        calls.incrementAndGet();
+        return twitterHandle.equals("thecajuncon") ? List.of(truck) : List.of();
+      }
+
+      @Override
+      public Optional<Truck> findById(String truckId) {
+        calls.incrementAndGet();
+        if (truckId.equals("garbled")) {
+          throw new ServiceException("unreadable response");
+        }
+        return truckId.equals("thecajuncon") ? Optional.of(truck) : Optional.empty();
+      }
+    })
+        .executor(Runnable::run)
+        .build();
+  }
+
+  @Test
+  public void findByIdHitsNetworkOnce() {
+    assertThat(service.findById("thecajuncon").isPresent()).isTrue();
+    assertThat(service.findById("thecajuncon").isPresent()).isTrue();
+    assertThat(calls.get()).isEqualTo(1);
+    assertThat(service.stats().get("trucksById").hitCount()).isEqualTo(1L);
+  }
+
+  @Test
+  public void findByIdCachesNotFound() {
+    assertThat(service.findById("nobody").isPresent()).isFalse();
+    assertThat(service.findById("nobody").isPresent()).isFalse();
+    assertThat(service.findByIdAsync("nobody").join().isPresent()).isFalse();
+    assertThat(calls.get()).isEqualTo(1);
+  }
+
+  @Test
+  public void filterQueriesAreCached() {
+    assertThat(service.findTrucksWithGoogleCalendars()).hasSize(1);
+    assertThat(service.findTrucksWithGoogleCalendars()).hasSize(1);
+    assertThat(service.findByTwitterHandle("thecajuncon")).hasSize(1);
+    assertThat(service.findByTwitterHandleAsync("thecajuncon").join()).hasSize(1);
+    assertThat(calls.get()).isEqualTo(2);
+  }
+
+  @Test
+  public void asyncFilterQueriesShareTheCache() {
+    assertThat(service.findTrucksWithGoogleCalendars()).hasSize(1);
+    assertThat(service.findTrucksWithGoogleCalendarsAsync().join()).hasSize(1);
+    assertThat(service.findTrucksWithICalCalendarsAsync().join()).isEmpty();
+    assertThat(service.findTrucksWithICalCalendars()).isEmpty();
+    assertThat(calls.get()).isEqualTo(2);
+  }
+
+  @Test
+  public void failuresAreNotCachedAsNotFound() {
+    for (int i = 0; i < 2; i++) {
+      try {
+        service.findById("garbled");
+        fail();
+      } catch (ServiceException expected) {
+      }
+    }
+    assertThat(calls.get()).isEqualTo(2);
+  }
+
+  @Test
+  public void refreshFractionMustBePositive() {
+    try {
+      CachingTruckService.builder(new TruckService() {
+        @Override
+        public List<Truck> findTrucksWithGoogleCalendars() {
+          return List.of();
+        }
+
+        @Override
+        public List<Truck> findTrucksWithICalCalendars() {
+          return List.of();
+        }
+
+        @Override
+        public List<Truck> findByTwitterHandle(String twitterHandle) {
+          return List.of();
+        }
+
+        @Override
+        public Optional<Truck> findById(String truckId) {
+          return Optional.empty();
+        }
+      })
+          .refreshFraction(0);
+      fail();
+    } catch (IllegalArgumentException expected) {
+    }
+  }
+}
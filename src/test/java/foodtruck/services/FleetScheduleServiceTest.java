@@ -0,0 +1,132 @@
+package foodtruck.services;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+
+import org.junit.Test;
+
+import foodtruck.models.Location;
+import foodtruck.models.Truck;
+import foodtruck.models.TruckStop;
+import foodtruck.util.ServiceException;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.fail;
+
+public class FleetScheduleServiceTest {
+
+  private static final LocalDate DATE = LocalDate.of(2020, 8, 3);
+
+  @Test
+  public void failedAndUnidentifiedTrucksDontFailTheSchedule() {
+    TruckStopService stops = stopService((truckId, date) -> {
+      if (truckId.equals("broken")) {
+        throw new ServiceException("Could not connect", 503);
+      }
+      return List.of(stop(truckId));
+    });
+    try (var service = FleetScheduleService.builder(stops)
+        .trucksPerTask(1)
+        .build()) {
+      var schedule = service.scheduleFor(Arrays.asList(truck("thecajuncon"), truck("broken"), truck(null), null,
+          truck("tamalespaceship")), DATE);
+      assertThat(schedule.getStopsByTruck()
+          .keySet()).containsExactly("thecajuncon", "tamalespaceship")
+          .inOrder();
+      assertThat(schedule.getFailedTrucks()).containsExactly("broken");
+    }
+  }
+
+  @Test
+  public void blockingLookupsDontStarveThePool() {
+    var started = new CountDownLatch(2);
+    TruckStopService stops = stopService((truckId, date) -> {
+      started.countDown();
+      try {
+        // each lookup waits for the other, so they only finish if they run at the same time
+        if (!started.await(10, TimeUnit.SECONDS)) {
+          throw new ServiceException("timed out");
+        }
+      } catch (InterruptedException e) {
+        throw new ServiceException(e);
+      }
+      return List.of(stop(truckId));
+    });
+    try (var service = FleetScheduleService.builder(stops)
+        .parallelism(1)
+        .trucksPerTask(1)
+        .build()) {
+      var schedule = service.scheduleFor(List.of(truck("thecajuncon"), truck("tamalespaceship")), DATE);
+      assertThat(schedule.getFailedTrucks()).isEmpty();
+      assertThat(schedule.getStops()).hasSize(2);
+    }
+  }
+
+  @Test
+  public void closeShutsDownOnlyAnOwnedPool() {
+    TruckStopService stops = stopService((truckId, date) -> List.of(stop(truckId)));
+    var pool = new ForkJoinPool(2);
+    try {
+      FleetScheduleService.builder(stops)
+          .pool(pool)
+          .build()
+          .close();
+      assertThat(pool.isShutdown()).isFalse();
+    } finally {
+      pool.shutdown();
+    }
+    var service = FleetScheduleService.builder(stops)
+        .build();
+    service.close();
+    try {
+      service.scheduleFor(List.of(truck("thecajuncon")), DATE);
+      fail();
+    } catch (RejectedExecutionException expected) {
+    }
+  }
+
+  private static TruckStopService stopService(BiFunction<String, LocalDate, List<TruckStop>> findDuring) {
+    return new TruckStopService() {
+      @Override
+      public List<TruckStop> findDuring(String truckId, LocalDate localDate) {
+        return findDuring.apply(truckId, localDate);
+      }
+
+      @Override
+      public Set<Truck> findNearLocation(Location location, Instant instant) {
+        return Set.of();
+      }
+    };
+  }
+
+  private static Truck truck(String id) {
+    return Truck.builder()
+        .id(id)
+        .name(id)
+        .build();
+  }
+
+  private static TruckStop stop(String truckId) {
+    return TruckStop.builder()
+        .truck(truck(truckId))
+        .location(Location.builder()
+            .name("Clark and Monroe, Chicago, IL")
+            .lat(41.880598)
+            .lng(-87.631035)
+            .build())
+        .startTime(DATE.atTime(11, 0)
+            .atZone(ZoneId.of("America/Chicago")))
+        .endTime(DATE.atTime(13, 0)
+            .atZone(ZoneId.of("America/Chicago")))
+        .build();
+  }
+}
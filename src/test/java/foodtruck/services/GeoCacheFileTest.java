@@ -0,0 +1,176 @@
+package foodtruck.services;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import foodtruck.models.Location;
+
+import static com.google.common.truth.Truth.assertThat;
+
+public class GeoCacheFileTest {
+
+  private static final Location DALEY = Location.builder()
+      .name("Daley Plaza")
+      .lat(41.883857)
+      .lng(-87.630028)
+      .build();
+
+  private final MutableClock clock = new MutableClock();
+  private Path dir;
+  private Path path;
+
+  @Before
+  public void before() throws IOException {
+    dir = Files.createTempDirectory("geocache");
+    path = dir.resolve("geocache.jsonl");
+  }
+
+  @After
+  public void after() throws IOException {
+    try (var files = Files.walk(dir)) {
+      files.sorted(Comparator.reverseOrder())
+          .forEach(p -> p.toFile()
+              .delete());
+    }
+  }
+
+  @Test
+  public void roundTripsAcrossReopen() throws IOException {
+    var file = GeoCacheFile.open(path, clock);
+    file.put("daley plaza", new CachingGeoLocator.Entry(DALEY, expiresIn(60)));
+    file.put("nowhere", new CachingGeoLocator.Entry(null, expiresIn(30)));
+    file.close();
+
+    file = GeoCacheFile.open(path, clock);
+    var found = file.get("daley plaza");
+    assertThat(found.location()).isEqualTo(DALEY);
+    assertThat(found.expiresAt()).isEqualTo(expiresIn(60));
+    var missing = file.get("nowhere");
+    assertThat(missing.location()).isNull();
+    assertThat(missing.expiresAt()).isEqualTo(expiresIn(30));
+    assertThat(file.get("somewhere else")).isNull();
+    file.close();
+  }
+
+  @Test
+  public void laterLinesWin() throws IOException {
+    var file = GeoCacheFile.open(path, clock);
+    file.put("daley plaza", new CachingGeoLocator.Entry(null, expiresIn(30)));
+    file.put("daley plaza", new CachingGeoLocator.Entry(DALEY, expiresIn(60)));
+    file.close();
+
+    file = GeoCacheFile.open(path, clock);
+    assertThat(file.get("daley plaza")
+        .location()).isEqualTo(DALEY);
+    file.close();
+  }
+
+  @Test
+  public void dropsExpiredEntriesOnOpen() throws IOException {
+    var file = GeoCacheFile.open(path, clock);
+    file.put("daley plaza", new CachingGeoLocator.Entry(DALEY, expiresIn(60)));
+    file.put("nowhere", new CachingGeoLocator.Entry(null, expiresIn(30)));
+    file.close();
+
+    clock.advance(45);
+    file = GeoCacheFile.open(path, clock);
+    assertThat(file.get("daley plaza")).isNotNull();
+    assertThat(file.get("nowhere")).isNull();
+    assertThat(Files.readAllLines(path)).hasSize(1);
+    file.close();
+  }
+
+  @Test
+  public void compactsOnceTheFileOutgrowsTheThreshold() throws IOException {
+    var file = GeoCacheFile.open(path, clock, 10_000);
+    for (int i = 0; i < 200; i++) {
+      file.put("daley plaza", new CachingGeoLocator.Entry(DALEY, expiresIn(60 + i)));
+      assertThat(file.size()).isAtMost(10_000L);
+      assertThat(file.size()).isEqualTo(Files.size(path));
+    }
+    assertThat(Files.readAllLines(path)
+        .size()).isLessThan(20);
+    file.close();
+
+    file = GeoCacheFile.open(path, clock);
+    assertThat(file.get("daley plaza")
+        .expiresAt()).isEqualTo(expiresIn(259));
+    file.close();
+  }
+
+  @Test
+  public void compactionDropsExpiredEntries() throws IOException {
+    var file = GeoCacheFile.open(path, clock, 10_000);
+    file.put("nowhere", new CachingGeoLocator.Entry(null, expiresIn(30)));
+    clock.advance(45);
+    for (int i = 0; i < 20; i++) {
+      file.put("daley plaza", new CachingGeoLocator.Entry(DALEY, expiresIn(60)));
+    }
+    assertThat(file.get("nowhere")).isNull();
+    assertThat(String.join("\n", Files.readAllLines(path))
+        .contains("nowhere")).isFalse();
+    file.close();
+  }
+
+  @Test
+  public void skipsATruncatedLastLine() throws IOException {
+    var file = GeoCacheFile.open(path, clock);
+    file.put("daley plaza", new CachingGeoLocator.Entry(DALEY, expiresIn(60)));
+    file.close();
+    // simulate a process that died part way through writing a line
+    Files.writeString(path, "{\"key\":\"nowhere\",\"expiresAt\":", StandardCharsets.UTF_8,
+        StandardOpenOption.APPEND);
+
+    file = GeoCacheFile.open(path, clock);
+    assertThat(file.get("daley plaza")
+        .location()).isEqualTo(DALEY);
+    assertThat(file.get("nowhere")).isNull();
+    file.put("the loop", new CachingGeoLocator.Entry(null, expiresIn(30)));
+    file.close();
+
+    file = GeoCacheFile.open(path, clock);
+    assertThat(file.get("daley plaza")).isNotNull();
+    assertThat(file.get("the loop")).isNotNull();
+    file.close();
+  }
+
+  private long expiresIn(long minutes) {
+    return clock.millis() + TimeUnit.MINUTES.toMillis(minutes);
+  }
+
+  static class MutableClock extends Clock {
+    private Instant now = Instant.parse("2026-10-18T12:00:00Z");
+
+    void advance(long minutes) {
+      now = now.plusSeconds(minutes * 60);
+    }
+
+    @Override
+    public ZoneId getZone() {
+      return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+      return this;
+    }
+
+    @Override
+    public Instant instant() {
+      return now;
+    }
+  }
+}
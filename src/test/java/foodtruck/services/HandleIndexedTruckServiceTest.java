@@ -0,0 +1,87 @@
+package foodtruck.services;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.Test;
+
+import foodtruck.models.Truck;
+
+import static com.google.common.truth.Truth.assertThat;
+
+public class HandleIndexedTruckServiceTest {
+
+  private final List<String> delegateLookups = new ArrayList<>();
+  private final List<Truck> fleet = new ArrayList<>(List.of(truck("thecajuncon")));
+  private final TwitterHandleIndex index = TwitterHandleIndex.builder(() -> List.copyOf(fleet))
+      .build();
+  private final HandleIndexedTruckService service = new HandleIndexedTruckService(new FleetTruckService(), index,
+      Duration.ofMinutes(1));
+
+  @Test
+  public void usesTheDelegateUntilTheIndexIsLoaded() {
+    assertThat(service.findByTwitterHandle("thecajuncon")).hasSize(1);
+    assertThat(delegateLookups).containsExactly("thecajuncon");
+    index.refresh();
+    assertThat(service.findByTwitterHandle("TheCajunCon")).hasSize(1);
+    assertThat(delegateLookups).hasSize(1);
+    index.close();
+  }
+
+  @Test
+  public void handlesMissingFromTheIndexAreLookedUpOnceAndRemembered() {
+    index.refresh();
+    fleet.add(truck("newtruck"));
+    assertThat(service.findByTwitterHandle("newtruck")).hasSize(1);
+    assertThat(service.findByTwitterHandleAsync("@NewTruck")
+        .join()).hasSize(1);
+    assertThat(service.findByTwitterHandle("notatruck")).isEmpty();
+    assertThat(service.findByTwitterHandle("notatruck")).isEmpty();
+    assertThat(delegateLookups).containsExactly("newtruck", "notatruck");
+    index.close();
+  }
+
+  private static Truck truck(String handle) {
+    return Truck.builder()
+        .id(handle)
+        .name(handle)
+        .twitterHandle(handle)
+        .build();
+  }
+
+  private class FleetTruckService implements TruckService {
+    @Override
+    public List<Truck> findTrucksWithGoogleCalendars() {
+      return List.of();
+    }
+
+    @Override
+    public List<Truck> findTrucksWithICalCalendars() {
+      return List.of();
+    }
+
+    @Override
+    public List<Truck> findByTwitterHandle(String twitterHandle) {
+      delegateLookups.add(twitterHandle);
+      var handle = TwitterHandleIndex.key(twitterHandle);
+      var found = new ArrayList<Truck>();
+      for (Truck truck : fleet) {
+        if (truck.getTwitterHandle()
+            .equalsIgnoreCase(handle)) {
+          found.add(truck);
+        }
+      }
+      return found;
+    }
+
+    @Override
+    public Optional<Truck> findById(String truckId) {
+      return fleet.stream()
+          .filter(truck -> truck.getId()
+              .equals(truckId))
+          .findFirst();
+    }
+  }
+}
@@ -0,0 +1,115 @@
+package foodtruck.services;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import foodtruck.util.ServiceException;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.fail;
+
+public class HttpAddressExtractorTest {
+
+  @Test
+  public void parseAllKeepsQueryOrderAcrossChunks() {
+    var pending = new ArrayList<CompletableFuture<List<String>>>();
+    var extractor = new HttpAddressExtractor(null, 2, 3) {
+      @Override
+      public CompletableFuture<List<String>> parseAsync(String text, String truckId) {
+        var future = new CompletableFuture<List<String>>();
+        pending.add(future);
+        if (pending.size() % 2 == 0 || text.equals("tweet 4")) {
+          // finish each chunk's requests newest first, so the results arrive out of order
+          for (int i = pending.size() - 1; i >= 0; i--) {
+            pending.get(i)
+                .complete(List.of("address " + i));
+          }
+        }
+        return future;
+      }
+    };
+    var queries = new ArrayList<AddressQuery>();
+    for (int i = 0; i < 5; i++) {
+      queries.add(new AddressQuery("tweet " + i, "truck"));
+    }
+    var results = extractor.parseAll(queries);
+    assertThat(results).hasSize(5);
+    for (int i = 0; i < 5; i++) {
+      assertThat(results.get(i)
+          .getQuery()).isSameInstanceAs(queries.get(i));
+      assertThat(results.get(i)
+          .getAddresses()).containsExactly("address " + i);
+    }
+  }
+
+  @Test
+  public void parseAllMapsFailuresToTheirQuery() {
+    var extractor = new HttpAddressExtractor(null, 2, 1) {
+      @Override
+      public CompletableFuture<List<String>> parseAsync(String text, String truckId) {
+        switch (text) {
+          case "fails":
+            return CompletableFuture.failedFuture(new ServiceException("Could not connect to address matcher", 503));
+          case "throws":
+            throw new ServiceException("bad request");
+          default:
+            return CompletableFuture.completedFuture(List.of(text));
+        }
+      }
+    };
+    var queries = List.of(new AddressQuery("Clark and Monroe", "truck"), new AddressQuery("fails", "truck"),
+        new AddressQuery("throws", "truck"), new AddressQuery("Wacker and Adams", "truck"));
+    var results = extractor.parseAll(queries);
+    assertThat(results).hasSize(4);
+    assertThat(results.get(0)
+        .getAddresses()).containsExactly("Clark and Monroe");
+    assertThat(results.get(1)
+        .isSuccess()).isFalse();
+    assertThat(((ServiceException) results.get(1)
+        .getError()).getStatusCode()).isEqualTo(503);
+    assertThat(results.get(2)
+        .isSuccess()).isFalse();
+    assertThat(results.get(3)
+        .getAddresses()).containsExactly("Wacker and Adams");
+  }
+
+  @Test
+  public void parseAllNeverExceedsMaxInFlight() {
+    var inFlight = new AtomicInteger();
+    var peak = new AtomicInteger();
+    var extractor = new HttpAddressExtractor(null, 10, 2) {
+      @Override
+      public CompletableFuture<List<String>> parseAsync(String text, String truckId) {
+        peak.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+        return CompletableFuture.supplyAsync(() -> {
+          inFlight.decrementAndGet();
+          return List.of(text);
+        });
+      }
+    };
+    var queries = new ArrayList<AddressQuery>();
+    for (int i = 0; i < 25; i++) {
+      queries.add(new AddressQuery("tweet " + i, "truck"));
+    }
+    assertThat(extractor.parseAll(queries)).hasSize(25);
+    assertThat(peak.get()).isAtMost(2);
+  }
+
+  @Test
+  public void batchSizeAndMaxInFlightMustBePositive() {
+    try {
+      new HttpAddressExtractor(null, 0, 1);
+      fail();
+    } catch (IllegalArgumentException expected) {
+    }
+    try {
+      new HttpAddressExtractor(null, 1, 0);
+      fail();
+    } catch (IllegalArgumentException expected) {
+    }
+  }
+}
@@ -0,0 +1,98 @@
+package foodtruck.services;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static com.google.common.truth.Truth.assertThat;
+
+public class HttpTransportTest {
+
+  private final List<String> requests = new CopyOnWriteArrayList<>();
+  private HttpServer server;
+  private String baseUrl;
+
+  @Before
+  public void before() throws IOException {
+    server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+    server.createContext("/", exchange -> {
+      requests.add(exchange.getRequestMethod() + " " + exchange.getRequestURI()
+          .getPath() + " " + exchange.getRequestHeaders()
+          .getFirst("x-ftf-secret"));
+      if (exchange.getRequestMethod()
+          .equals("HEAD")) {
+        exchange.sendResponseHeaders(200, -1);
+        exchange.close();
+        return;
+      }
+      var body = "hello".getBytes(StandardCharsets.UTF_8);
+      exchange.sendResponseHeaders(200, body.length);
+      try (var out = exchange.getResponseBody()) {
+        out.write(body);
+      }
+    });
+    server.start();
+    baseUrl = "http://127.0.0.1:" + server.getAddress()
+        .getPort();
+  }
+
+  @After
+  public void after() {
+    server.stop(0);
+  }
+
+  @Test
+  public void warmUpSendsAHeadRequestToEachTarget() {
+    var transport = HttpTransport.builder()
+        .clearWarmupTargets()
+        .warmupTarget(URI.create(baseUrl + "/"))
+        .warmupTarget(URI.create(baseUrl + "/address"))
+        .build();
+    transport.warmUp()
+        .join();
+    assertThat(requests).containsExactly("HEAD / null", "HEAD /address null");
+  }
+
+  @Test
+  public void warmUpIgnoresUnreachableTargets() throws IOException {
+    int closedPort;
+    try (var socket = new ServerSocket(0)) {
+      closedPort = socket.getLocalPort();
+    }
+    var transport = HttpTransport.builder()
+        .clearWarmupTargets()
+        .warmupTarget(URI.create("http://127.0.0.1:" + closedPort + "/"))
+        .warmupTarget(URI.create(baseUrl + "/"))
+        .build();
+    transport.warmUp()
+        .join();
+    assertThat(requests).containsExactly("HEAD / null");
+  }
+
+  @Test
+  public void sendsApiRequestsWithTheSecret() {
+    var transport = HttpTransport.builder()
+        .clearWarmupTargets()
+        .apiUrl(baseUrl)
+        .apiSecret("s3cret")
+        .build();
+    var body = transport.send(transport.newApiRequest("/services/v2/trucks")
+        .GET()
+        .build(), response -> response.statusCode() + " " + response.body());
+    assertThat(body).isEqualTo("200 hello");
+    assertThat(transport.sendAsync(transport.newApiRequest("/services/v2/trucks")
+        .GET()
+        .build(), response -> response.body())
+        .join()).isEqualTo("hello");
+    assertThat(requests).containsExactly("GET /services/v2/trucks s3cret", "GET /services/v2/trucks s3cret");
+  }
+}
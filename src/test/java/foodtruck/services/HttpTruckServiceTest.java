@@ -0,0 +1,180 @@
+package foodtruck.services;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import javax.net.ssl.SSLSession;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.Test;
+
+import foodtruck.models.Truck;
+import foodtruck.util.ServiceException;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.fail;
+
+public class HttpTruckServiceTest {
+
+  private static final String CAJUN = "{\"id\":\"thecajuncon\",\"name\":\"The Cajun Connoisseur\"}";
+  private static final String TAMALE = "{\"id\":\"tamalespaceship\",\"name\":\"Tamale Spaceship\"}";
+
+  private final HttpTruckService service = new HttpTruckService(HttpTransport.builder()
+      .clearWarmupTargets()
+      .build());
+
+  @Test
+  public void readsAnEmptyList() {
+    try (var trucks = service.readTruckStream(response(200, "[]"))) {
+      assertThat(trucks.collect(Collectors.toList())).isEmpty();
+    }
+  }
+
+  @Test
+  public void readsEachTruckInOrder() {
+    try (var trucks = service.readTruckStream(response(200, "[" + CAJUN + "," + TAMALE + "]"))) {
+      assertThat(ids(trucks.collect(Collectors.toList()))).containsExactly("thecajuncon", "tamalespaceship")
+          .inOrder();
+    }
+  }
+
+  @Test
+  public void malformedElementsAreServiceExceptions() {
+    try (var trucks = service.readTruckStream(response(200, "[" + CAJUN + ",{\"id\":\"tamalespaceship\",,}]"))) {
+      var iterator = trucks.iterator();
+      assertThat(iterator.next()
+          .getId()).isEqualTo("thecajuncon");
+      iterator.hasNext();
+      fail("expected the second element to fail");
+    } catch (ServiceException expected) {
+    }
+  }
+
+  @Test
+  public void errorResponsesAreServiceExceptions() {
+    try {
+      service.readTruckStream(response(503, "unavailable"));
+      fail("expected a failure");
+    } catch (ServiceException e) {
+      assertThat(e.getStatusCode()).isEqualTo(503);
+    }
+  }
+
+  @Test
+  public void closingTheStreamEarlyClosesTheBody() {
+    var body = new TrackingInputStream("[" + CAJUN + "," + TAMALE + "]");
+    try (var trucks = service.readTruckStream(response(200, body))) {
+      assertThat(trucks.findFirst()
+          .get()
+          .getId()).isEqualTo("thecajuncon");
+    }
+    assertThat(body.closed).isTrue();
+  }
+
+  @Test
+  public void findsTrucksOverHttp() throws IOException {
+    var server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+    server.createContext("/services/v2/trucks", exchange -> {
+      var body = ("filter=google_calendar".equals(exchange.getRequestURI()
+          .getQuery()) ? "[" + CAJUN + "," + TAMALE + "]" : "[]").getBytes(StandardCharsets.UTF_8);
+      exchange.sendResponseHeaders(200, body.length);
+      try (var out = exchange.getResponseBody()) {
+        out.write(body);
+      }
+    });
+    server.start();
+    try {
+      var local = new HttpTruckService(HttpTransport.builder()
+          .clearWarmupTargets()
+          .apiUrl("http://127.0.0.1:" + server.getAddress()
+              .getPort())
+          .build());
+      assertThat(ids(local.findTrucksWithGoogleCalendars())).containsExactly("thecajuncon", "tamalespaceship")
+          .inOrder();
+      assertThat(local.findTrucksWithICalCalendars()).isEmpty();
+    } finally {
+      server.stop(0);
+    }
+  }
+
+  private static List<String> ids(List<Truck> trucks) {
+    return trucks.stream()
+        .map(Truck::getId)
+        .collect(Collectors.toList());
+  }
+
+  private static HttpResponse<InputStream> response(int statusCode, String body) {
+    return response(statusCode, new TrackingInputStream(body));
+  }
+
+  private static HttpResponse<InputStream> response(int statusCode, InputStream body) {
+    return new HttpResponse<>() {
+      @Override
+      public int statusCode() {
+        return statusCode;
+      }
+
+      @Override
+      public HttpRequest request() {
+        return HttpRequest.newBuilder(URI.create("http://localhost/services/v2/trucks"))
+            .build();
+      }
+
+      @Override
+      public Optional<HttpResponse<InputStream>> previousResponse() {
+        return Optional.empty();
+      }
+
+      @Override
+      public HttpHeaders headers() {
+        return HttpHeaders.of(Map.of(), (name, value) -> true);
+      }
+
+      @Override
+      public InputStream body() {
+        return body;
+      }
+
+      @Override
+      public Optional<SSLSession> sslSession() {
+        return Optional.empty();
+      }
+
+      @Override
+      public URI uri() {
+        return request().uri();
+      }
+
+      @Override
+      public HttpClient.Version version() {
+        return HttpClient.Version.HTTP_1_1;
+      }
+    };
+  }
+
+  private static class TrackingInputStream extends ByteArrayInputStream {
+    private boolean closed;
+
+    private TrackingInputStream(String body) {
+      super(body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public void close() throws IOException {
+      closed = true;
+      super.close();
+    }
+  }
+}
@@ -0,0 +1,99 @@
+package foodtruck.services;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.junit.Test;
+
+import foodtruck.models.Location;
+import foodtruck.util.ServiceException;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.fail;
+
+public class InMemoryLocationServiceTest {
+
+  private static final Location STREET = Location.builder()
+      .key(1L)
+      .name("50 West Washington Street, Chicago, IL")
+      .lat(41.883857)
+      .lng(-87.630028)
+      .build();
+  private static final Location DALEY = Location.builder()
+      .key(2L)
+      .name("Daley Plaza")
+      .alias("50 West Washington Street, Chicago, IL")
+      .lat(41.883857)
+      .lng(-87.630028)
+      .build();
+  private static final Location DANGLING = Location.builder()
+      .name("The Bean")
+      .alias("Somewhere we don't know about")
+      .build();
+
+  private final InMemoryLocationService service = new InMemoryLocationService(List.of(STREET, DALEY, DANGLING));
+
+  @Test
+  public void findsByIdAndNormalizedName() {
+    assertThat(service.findById(2)).hasValue(DALEY);
+    assertThat(service.findById(3)
+        .isPresent()).isFalse();
+    assertThat(service.findByName("  daley   PLAZA ")).hasValue(DALEY);
+    assertThat(service.findByName("Daley Center")
+        .isPresent()).isFalse();
+  }
+
+  @Test
+  public void findByAliasResolvesANameToItsAliasTarget() {
+    assertThat(service.findByAlias("daley plaza")).hasValue(STREET);
+    // not the other way round
+    assertThat(service.findByAlias("50 West Washington Street, Chicago, IL")
+        .isPresent()).isFalse();
+    // and not when the alias names nothing known
+    assertThat(service.findByAlias("The Bean")
+        .isPresent()).isFalse();
+  }
+
+  @Test
+  public void loadReplacesTheSnapshot() {
+    service.load(List.of(STREET));
+    assertThat(service.findAll()).containsExactly(STREET);
+    assertThat(service.findByName("Daley Plaza")
+        .isPresent()).isFalse();
+    assertThat(service.findByAlias("Daley Plaza")
+        .isPresent()).isFalse();
+  }
+
+  @Test
+  public void loadingJsonSharesIdenticalLocations() {
+    service.load(json("[{\"name\":\"Daley Plaza\",\"alias\":\"50 West Washington Street, Chicago, IL\"," +
+        "\"latitude\":41.883857,\"longitude\":-87.630028}," +
+        "{\"name\":\"50 West Washington Street, Chicago, IL\",\"latitude\":41.883857,\"longitude\":-87.630028}," +
+        "{\"name\":\"50 West Washington Street, Chicago, IL\",\"latitude\":41.883857,\"longitude\":-87.630028}]"));
+    var all = service.findAll();
+    assertThat(all).hasSize(3);
+    assertThat(all.get(1)).isSameInstanceAs(all.get(2));
+    assertThat(service.findByAlias("Daley Plaza")).hasValue(all.get(1));
+    try {
+      all.get(1)
+          .setRadius(1);
+      fail("expected shared locations to be unchangeable");
+    } catch (IllegalStateException expected) {
+    }
+  }
+
+  @Test
+  public void malformedJsonIsAServiceException() {
+    try {
+      service.load(json("[{\"name\":"));
+      fail("expected a failure");
+    } catch (ServiceException expected) {
+    }
+    assertThat(service.findByName("Daley Plaza")).hasValue(DALEY);
+  }
+
+  private static ByteArrayInputStream json(String json) {
+    return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+  }
+}
@@ -0,0 +1,38 @@
+package foodtruck.services;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import foodtruck.models.Location;
+
+import static com.google.common.truth.Truth.assertThat;
+
+public class LocationNameIndexTest {
+
+  private final Location chicagoAve = location("600 W Chicago Ave, Chicago, IL");
+  private final Location clarkAndMonroe = location("Clark and Monroe, Chicago, IL");
+  private final LocationNameIndex index = LocationNameIndex.of(List.of(chicagoAve, clarkAndMonroe));
+
+  @Test
+  public void findsExactAndMisspelledNames() {
+    assertThat(index.find("600 West Chicago Avenue")).hasValue(chicagoAve);
+    assertThat(index.find("600 W Chicgo Ave")).hasValue(chicagoAve);
+    assertThat(index.find("Monroe & Clarke")).hasValue(clarkAndMonroe);
+  }
+
+  @Test
+  public void nearMissAddressesAreNotFuzzyMatched() {
+    assertThat(index.find("1600 W Chicago Ave, Chicago, IL").isPresent()).isFalse();
+    assertThat(index.find("610 W Chicago Ave, Chicago, IL").isPresent()).isFalse();
+    assertThat(index.find("500 W Chicago Ave, Chicago, IL").isPresent()).isFalse();
+    assertThat(index.find("600 E Chicago Ave, Chicago, IL").isPresent()).isFalse();
+    assertThat(index.find("600 Chicago Ave, Chicago, IL").isPresent()).isFalse();
+  }
+
+  private static Location location(String name) {
+    return Location.builder()
+        .name(name)
+        .build();
+  }
+}
@@ -0,0 +1,175 @@
+package foodtruck.services;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.Test;
+
+import foodtruck.models.Location;
+import foodtruck.models.Truck;
+import foodtruck.util.ServiceException;
+
+import static com.google.common.truth.Truth.assertThat;
+
+public class RuleBasedAddressExtractorTest {
+
+  private final List<String> remoteTexts = new ArrayList<>();
+  private final RuleBasedAddressExtractor extractor = RuleBasedAddressExtractor.builder((text, truckId) -> {
+    remoteTexts.add(text);
+    return List.of("remote");
+  })
+      .locations(List.of(location("Clark and Monroe, Chicago, IL"), location("Wabash and Van Buren, Chicago, IL"),
+          location("Madison and Wacker, Chicago, IL"), Location.builder()
+              .name("Daley Plaza")
+              .alias("50 West Washington Street, Chicago, IL")
+              .build()))
+      .build();
+
+  @Test
+  public void findsKnownLocationsInEitherOrder() {
+    assertThat(extractor.parse("At Monroe & Clark til 2!", "truck")).containsExactly("Clark and Monroe, Chicago, IL");
+    assertThat(extractor.parse("Daley Plaza today", "truck")).containsExactly(
+        "50 West Washington Street, Chicago, IL");
+    assertThat(remoteTexts).isEmpty();
+  }
+
+  @Test
+  public void pairsKnownStreets() {
+    assertThat(extractor.parse("Wabash and W. Madison St. for lunch", "truck")).containsExactly(
+        "Wabash and West Madison Street, Chicago, IL");
+    assertThat(remoteTexts).isEmpty();
+  }
+
+  @Test
+  public void asksRemoteExtractorWhenNothingIsFound() {
+    assertThat(extractor.parse("Burgers and fries at the park", "truck")).containsExactly("remote");
+    assertThat(remoteTexts).containsExactly("Burgers and fries at the park");
+  }
+
+  @Test
+  public void parseAsyncLooksUpTheTruckWithoutBlocking() {
+    var truck = Truck.builder()
+        .id("thecajuncon")
+        .name("The Cajun Connoisseur")
+        .defaultCity("Evanston, IL")
+        .blacklistLocationNames(List.of("Clark and Monroe"))
+        .build();
+    var lookup = new CompletableFuture<Optional<Truck>>();
+    var async = RuleBasedAddressExtractor.builder((text, truckId) -> List.of("remote"))
+        .locations(List.of(location("Clark and Monroe, Chicago, IL"), location("Wabash and Van Buren, Chicago, IL")))
+        .trucks(new TruckService() {
+          @Override
+          public List<Truck> findTrucksWithGoogleCalendars() {
+            return List.of();
+          }
+
+          @Override
+          public List<Truck> findTrucksWithICalCalendars() {
+            return List.of();
+          }
+
+          @Override
+          public List<Truck> findByTwitterHandle(String twitterHandle) {
+            return List.of();
+          }
+
+          @Override
+          public Optional<Truck> findById(String truckId) {
+            throw new AssertionError("parseAsync must not block on the truck lookup");
+          }
+
+          @Override
+          public CompletableFuture<Optional<Truck>> findByIdAsync(String truckId) {
+            return lookup;
+          }
+        })
+        .build();
+    var addresses = async.parseAsync("Clark & Monroe or Wabash and Van Buren", "thecajuncon");
+    assertThat(addresses.isDone()).isFalse();
+    lookup.complete(Optional.of(truck));
+    assertThat(addresses.join()).containsExactly("Wabash and Van Buren, Chicago, IL");
+  }
+
+  @Test
+  public void parseAllSendsOnlyUnresolvedQueriesToTheRemoteExtractor() {
+    var truck = Truck.builder()
+        .id("thecajuncon")
+        .name("The Cajun Connoisseur")
+        .blacklistLocationNames(List.of("Navy Pier"))
+        .build();
+    var remoteBatches = new ArrayList<List<AddressQuery>>();
+    var remote = new AddressExtractor() {
+      @Override
+      public List<String> parse(String text, String truckId) {
+        if (text.startsWith("Somewhere")) {
+          throw new ServiceException("unreadable response");
+        }
+        return List.of("Navy Pier, Chicago, IL", "Millennium Park, Chicago, IL");
+      }
+
+      @Override
+      public List<AddressResult> parseAll(List<AddressQuery> queries) {
+        remoteBatches.add(queries);
+        return AddressExtractor.super.parseAll(queries);
+      }
+    };
+    var batched = RuleBasedAddressExtractor.builder(remote)
+        .locations(List.of(location("Clark and Monroe, Chicago, IL"), location("Wabash and Van Buren, Chicago, IL")))
+        .trucks(new TruckService() {
+          @Override
+          public List<Truck> findTrucksWithGoogleCalendars() {
+            return List.of();
+          }
+
+          @Override
+          public List<Truck> findTrucksWithICalCalendars() {
+            return List.of();
+          }
+
+          @Override
+          public List<Truck> findByTwitterHandle(String twitterHandle) {
+            return List.of();
+          }
+
+          @Override
+          public Optional<Truck> findById(String truckId) {
+            return truckId.equals(truck.getId()) ? Optional.of(truck) : Optional.empty();
+          }
+        })
+        .build();
+    var queries = List.of(new AddressQuery("Clark & Monroe til 2", "thecajuncon"),
+        new AddressQuery("Lakefront today", "thecajuncon"), new AddressQuery("Somewhere new", "thecajuncon"),
+        new AddressQuery("Wabash and Van Buren", "tamalespaceship"), new AddressQuery("Lakefront again",
+            "tamalespaceship"));
+
+    var results = batched.parseAll(queries);
+
+    assertThat(remoteBatches).containsExactly(List.of(queries.get(1), queries.get(2), queries.get(4)));
+    assertThat(results).hasSize(5);
+    for (int i = 0; i < results.size(); i++) {
+      assertThat(results.get(i)
+          .getQuery()).isSameInstanceAs(queries.get(i));
+    }
+    assertThat(results.get(0)
+        .getAddresses()).containsExactly("Clark and Monroe, Chicago, IL");
+    // the truck's blacklist applies to what the remote extractor found, too
+    assertThat(results.get(1)
+        .getAddresses()).containsExactly("Millennium Park, Chicago, IL");
+    assertThat(results.get(2)
+        .isSuccess()).isFalse();
+    assertThat(results.get(2)
+        .getError()).isInstanceOf(ServiceException.class);
+    assertThat(results.get(3)
+        .getAddresses()).containsExactly("Wabash and Van Buren, Chicago, IL");
+    assertThat(results.get(4)
+        .getAddresses()).containsExactly("Navy Pier, Chicago, IL", "Millennium Park, Chicago, IL");
+  }
+
+  private static Location location(String name) {
+    return Location.builder()
+        .name(name)
+        .build();
+  }
+}
@@ -0,0 +1,58 @@
+package foodtruck.services;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+import foodtruck.models.Truck;
+
+import static com.google.common.truth.Truth.assertThat;
+
+public class TruckNameIndexTest {
+
+  private final TruckNameIndex index = TruckNameIndex.of(List.of(truck("cajun", "The Cajun Connoisseur"),
+      Truck.builder()
+          .id("5411")
+          .name("5411 Empanadas")
+          .phoneticAliases(List.of("fifty four eleven empanadas"))
+          .build(), truck("phil", "Philly's Best"), truck("caj", "Cajun Queen")));
+
+  @Test
+  public void findsExactAliasAndSoundAlikeNames() {
+    assertThat(ids("the cajun connoisseur")).containsExactly("cajun");
+    assertThat(ids("fifty four eleven empanadas")).containsExactly("5411");
+    assertThat(ids("filly's best")).containsExactly("phil");
+  }
+
+  @Test
+  public void findsPrefixesOfAnyWord() {
+    assertThat(ids("cajun")).containsExactly("caj", "cajun")
+        .inOrder();
+    assertThat(ids("connois")).containsExactly("cajun");
+    assertThat(ids("empan")).containsExactly("5411");
+  }
+
+  @Test
+  public void reindexesUpdatedAndRemovedTrucks() {
+    index.update(truck("cajun", "Bayou Bites"));
+    index.remove("phil");
+    assertThat(ids("connoisseur")).isEmpty();
+    assertThat(ids("bayou")).containsExactly("cajun");
+    assertThat(ids("philly's best")).isEmpty();
+  }
+
+  private List<String> ids(String query) {
+    return index.search(query, 5)
+        .stream()
+        .map(Truck::getId)
+        .collect(Collectors.toList());
+  }
+
+  private static Truck truck(String id, String name) {
+    return Truck.builder()
+        .id(id)
+        .name(name)
+        .build();
+  }
+}
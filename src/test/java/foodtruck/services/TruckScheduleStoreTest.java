@@ -0,0 +1,93 @@
+package foodtruck.services;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.Test;
+
+import foodtruck.models.Location;
+import foodtruck.models.Truck;
+import foodtruck.models.TruckStop;
+
+import static com.google.common.truth.Truth.assertThat;
+
+public class TruckScheduleStoreTest {
+
+  private static final ZoneId CHICAGO = ZoneId.of("America/Chicago");
+  private static final long HOUR = 3600_000L;
+
+  private final Random random = new Random(11);
+  private final Truck truck = Truck.builder()
+      .id("thecajuncon")
+      .name("The Cajun Connoisseur")
+      .build();
+
+  @Test
+  public void queriesMatchScanningEveryStop() {
+    var stops = new ArrayList<TruckStop>();
+    for (int i = 0; i < 200; i++) {
+      stops.add(stop(random.nextInt(24 * 30) * HOUR, random.nextInt(8) * HOUR));
+    }
+    var store = new TruckScheduleStore(stops.subList(0, 100));
+    stops.subList(100, 200)
+        .forEach(store::insert);
+    for (int i = 0; i < 20; i++) {
+      store.remove(stops.remove(random.nextInt(stops.size())));
+    }
+    for (int i = 0; i < 500; i++) {
+      long time = random.nextInt(24 * 30 * 4) * HOUR / 4;
+      var instant = Instant.ofEpochMilli(time);
+      var dateTime = ZonedDateTime.ofInstant(instant, CHICAGO);
+      assertThat(store.activeAt(truck.getId(), instant)).isEqualTo(sorted(stops.stream()
+          .filter(stop -> stop.activeDuring(dateTime))));
+      var end = instant.plusMillis(random.nextInt(12) * HOUR);
+      assertThat(store.overlapping(truck.getId(), instant, end)).isEqualTo(sorted(stops.stream()
+          .filter(stop -> stop.getStartTime()
+              .toInstant()
+              .isBefore(end) && stop.getEndTime()
+              .toInstant()
+              .isAfter(instant))));
+    }
+  }
+
+  @Test
+  public void loadReplacesEveryTrucksSchedule() {
+    var other = Truck.builder()
+        .id("tamalespaceship")
+        .name("Tamale Spaceship")
+        .build();
+    var otherStop = TruckStop.builder(stop(10 * HOUR, 2 * HOUR))
+        .truck(other)
+        .build();
+    var store = new TruckScheduleStore(List.of(stop(10 * HOUR, 2 * HOUR), otherStop));
+    var replacement = stop(11 * HOUR, 2 * HOUR);
+    store.load(List.of(replacement));
+    assertThat(store.activeAt(Instant.ofEpochMilli(11 * HOUR))).containsExactly(replacement);
+    assertThat(store.activeAt(other.getId(), Instant.ofEpochMilli(11 * HOUR))).isEmpty();
+  }
+
+  private List<TruckStop> sorted(Stream<TruckStop> stops) {
+    return stops.sorted(Comparator.comparing(TruckStop::getStartTime))
+        .collect(Collectors.toList());
+  }
+
+  private TruckStop stop(long start, long duration) {
+    return TruckStop.builder()
+        .truck(truck)
+        .location(Location.builder()
+            .name("Stop " + start)
+            .lat(41.88)
+            .lng(-87.63)
+            .build())
+        .startTime(ZonedDateTime.ofInstant(Instant.ofEpochMilli(start), CHICAGO))
+        .endTime(ZonedDateTime.ofInstant(Instant.ofEpochMilli(start + duration), CHICAGO))
+        .build();
+  }
+}
@@ -0,0 +1,117 @@
+package foodtruck.services;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.List;
+
+import org.junit.Test;
+
+import foodtruck.models.Location;
+import foodtruck.models.Truck;
+import foodtruck.models.TruckStop;
+
+import static com.google.common.truth.Truth.assertThat;
+
+public class TruckStopIndexTest {
+
+  private static final ZoneId CHICAGO = ZoneId.of("America/Chicago");
+  private static final long HOUR = 3600_000L;
+  private static final Location CLARK_AND_MONROE = Location.builder()
+      .name("Clark and Monroe, Chicago, IL")
+      .lat(41.880598)
+      .lng(-87.631035)
+      .build();
+
+  private final Truck cajun = truck("thecajuncon");
+  private final Truck tamale = truck("tamalespaceship");
+
+  @Test
+  public void stopsAreActiveFromTheirStartUntilJustBeforeTheirEnd() {
+    var index = new TruckStopIndex(List.of(stop(cajun, 10 * HOUR, 12 * HOUR)), 0.5);
+    assertThat(index.findNear(CLARK_AND_MONROE, 1, at(10 * HOUR - 1))).isEmpty();
+    assertThat(index.findNear(CLARK_AND_MONROE, 1, at(10 * HOUR))).containsExactly(cajun);
+    assertThat(index.findNear(CLARK_AND_MONROE, 1, at(12 * HOUR - 1))).containsExactly(cajun);
+    assertThat(index.findNear(CLARK_AND_MONROE, 1, at(12 * HOUR))).isEmpty();
+  }
+
+  @Test
+  public void findsLongStopsThatStartedBeforeShortOnes() {
+    var index = new TruckStopIndex(List.of(stop(cajun, 6 * HOUR, 20 * HOUR), stop(tamale, 11 * HOUR, 12 * HOUR),
+        stop(tamale, 13 * HOUR, 14 * HOUR)), 0.5);
+    assertThat(index.findNear(CLARK_AND_MONROE, 1, at(11 * HOUR + HOUR / 2))).containsExactly(cajun, tamale);
+    assertThat(index.findNear(CLARK_AND_MONROE, 1, at(12 * HOUR + HOUR / 2))).containsExactly(cajun);
+    assertThat(index.findNear(CLARK_AND_MONROE, 1, at(19 * HOUR))).containsExactly(cajun);
+  }
+
+  @Test
+  public void skipsStopsWithoutATruck() {
+    var index = new TruckStopIndex(List.of(stop(null, 10 * HOUR, 12 * HOUR), stop(cajun, 10 * HOUR, 12 * HOUR)),
+        0.5);
+    assertThat(index.findNear(CLARK_AND_MONROE, 1, at(11 * HOUR))).containsExactly(cajun);
+  }
+
+  @Test
+  public void onlyFindsStopsWithinTheRadius() {
+    var evanston = Location.builder()
+        .name("Davis and Sherman, Evanston, IL")
+        .lat(42.046)
+        .lng(-87.681)
+        .build();
+    var index = new TruckStopIndex(List.of(stop(cajun, 10 * HOUR, 12 * HOUR), TruckStop.builder(
+        stop(tamale, 10 * HOUR, 12 * HOUR))
+        .location(evanston)
+        .build()), 0.5);
+    assertThat(index.findNear(CLARK_AND_MONROE, 2, at(11 * HOUR))).containsExactly(cajun);
+    assertThat(index.findNear(CLARK_AND_MONROE, 15, at(11 * HOUR))).containsExactly(cajun, tamale);
+  }
+
+  @Test
+  public void eachCellLooksBackOverItsOwnLongestStop() {
+    var evanston = Location.builder()
+        .name("Davis and Sherman, Evanston, IL")
+        .lat(42.046)
+        .lng(-87.681)
+        .build();
+    var index = new TruckStopIndex(List.of(TruckStop.builder(stop(cajun, 0, 23 * HOUR))
+        .location(evanston)
+        .build(), stop(tamale, 8 * HOUR, 9 * HOUR), stop(tamale, 10 * HOUR, 12 * HOUR)), 0.5);
+    assertThat(index.findNear(CLARK_AND_MONROE, 1, at(8 * HOUR + HOUR / 2))).containsExactly(tamale);
+    assertThat(index.findNear(CLARK_AND_MONROE, 1, at(9 * HOUR + HOUR / 2))).isEmpty();
+    assertThat(index.findNear(evanston, 1, at(22 * HOUR))).containsExactly(cajun);
+    assertThat(index.findNear(CLARK_AND_MONROE, 15, at(11 * HOUR))).containsExactly(cajun, tamale);
+  }
+
+  @Test
+  public void insertsAndRemovesStops() {
+    var index = new TruckStopIndex(List.of(stop(cajun, 10 * HOUR, 12 * HOUR)), 0.5);
+    var tamaleStop = stop(tamale, 9 * HOUR, 14 * HOUR);
+    index.insert(tamaleStop);
+    assertThat(index.findNear(CLARK_AND_MONROE, 1, at(9 * HOUR))).containsExactly(tamale);
+    assertThat(index.findNear(CLARK_AND_MONROE, 1, at(11 * HOUR))).containsExactly(cajun, tamale);
+    index.remove(stop(cajun, 10 * HOUR, 12 * HOUR));
+    assertThat(index.findNear(CLARK_AND_MONROE, 1, at(11 * HOUR))).containsExactly(tamale);
+    index.remove(tamaleStop);
+    assertThat(index.findNear(CLARK_AND_MONROE, 1, at(11 * HOUR))).isEmpty();
+  }
+
+  private static Truck truck(String id) {
+    return Truck.builder()
+        .id(id)
+        .name(id)
+        .build();
+  }
+
+  private static Instant at(long millis) {
+    return Instant.ofEpochMilli(millis);
+  }
+
+  private static TruckStop stop(Truck truck, long start, long end) {
+    return TruckStop.builder()
+        .truck(truck)
+        .location(CLARK_AND_MONROE)
+        .startTime(ZonedDateTime.ofInstant(at(start), CHICAGO))
+        .endTime(ZonedDateTime.ofInstant(at(end), CHICAGO))
+        .build();
+  }
+}
@@ -0,0 +1,55 @@
+package foodtruck.services;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+import foodtruck.models.Truck;
+import foodtruck.util.ServiceException;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.fail;
+
+public class TwitterHandleIndexTest {
+
+  private final Truck cajun = Truck.builder()
+      .id("thecajuncon")
+      .name("The Cajun Connoisseur")
+      .twitterHandle("TheCajunCon")
+      .build();
+
+  @Test
+  public void ignoresCaseAndLeadingAt() {
+    try (var index = TwitterHandleIndex.builder(() -> List.of(cajun))
+        .build()) {
+      assertThat(index.isLoaded()).isFalse();
+      index.refresh();
+      assertThat(index.findTrucks("thecajuncon")).containsExactly(cajun);
+      assertThat(index.findTrucks(" @THECAJUNCON")).containsExactly(cajun);
+      assertThat(index.findTrucks("someoneelse")).isEmpty();
+    }
+  }
+
+  @Test
+  public void failedRefreshKeepsThePreviousIndex() {
+    var trucks = new AtomicReference<List<Truck>>(List.of(cajun));
+    try (var index = TwitterHandleIndex.builder(() -> {
+      var current = trucks.get();
+      if (current == null) {
+        throw new ServiceException("truck service is down");
+      }
+      return current;
+    })
+        .build()) {
+      index.refresh();
+      trucks.set(null);
+      try {
+        index.refresh();
+        fail("expected the refresh to fail");
+      } catch (ServiceException expected) {
+      }
+      assertThat(index.findTrucks("@thecajuncon")).containsExactly(cajun);
+    }
+  }
+}
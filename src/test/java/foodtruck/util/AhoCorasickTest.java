@@ -0,0 +1,26 @@
+package foodtruck.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import static com.google.common.truth.Truth.assertThat;
+
+public class AhoCorasickTest {
+
+  @Test
+  public void findsOverlappingMatches() {
+    var automaton = AhoCorasick.of(List.of("he", "she", "his", "hers"));
+    var found = new ArrayList<String>();
+    automaton.scan("ushers", (pattern, start, end) -> found.add(pattern + ":" + start + "-" + end));
+    assertThat(found).isEqualTo(List.of("1:1-4", "0:2-4", "3:2-6"));
+  }
+
+  @Test
+  public void containsAny() {
+    var automaton = AhoCorasick.of(List.of("popup", "private event"));
+    assertThat(automaton.containsAny("at a private event today")).isTrue();
+    assertThat(automaton.containsAny("at clark and monroe today")).isFalse();
+  }
+}
@@ -0,0 +1,21 @@
+package foodtruck.util;
+
+import org.junit.Test;
+
+import static com.google.common.truth.Truth.assertThat;
+
+public class LocationNamesTest {
+
+  @Test
+  public void canonicalizeIntersections() {
+    assertThat(LocationNames.canonicalize("Clark & Monroe")).isEqualTo("clark and monroe");
+    assertThat(LocationNames.canonicalize("Monroe and Clark, Chicago, IL")).isEqualTo("clark and monroe");
+  }
+
+  @Test
+  public void canonicalizeAddresses() {
+    assertThat(LocationNames.canonicalize("600 W. Chicago Ave, Chicago, IL 60654, USA")).isEqualTo(
+        "600 west chicago avenue");
+    assertThat(LocationNames.canonicalize("Chicago")).isEqualTo("chicago");
+  }
+}
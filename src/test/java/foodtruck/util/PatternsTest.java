@@ -0,0 +1,25 @@
+package foodtruck.util;
+
+import java.util.regex.PatternSyntaxException;
+
+import org.junit.Test;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.fail;
+
+public class PatternsTest {
+
+  @Test
+  public void compiledPatternsAreShared() {
+    assertThat(Patterns.compile("popup|private")).isSameInstanceAs(Patterns.compile("popup|private"));
+  }
+
+  @Test
+  public void invalidPatternsThrowPatternSyntaxException() {
+    try {
+      Patterns.compile("popup(");
+      fail("expected a PatternSyntaxException");
+    } catch (PatternSyntaxException expected) {
+    }
+  }
+}
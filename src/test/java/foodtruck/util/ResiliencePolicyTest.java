@@ -0,0 +1,126 @@
+package foodtruck.util;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.fail;
+
+public class ResiliencePolicyTest {
+
+  @Test
+  public void retriesTransientFailures() {
+    var policy = ResiliencePolicy.builder()
+        .backoff(Duration.ofMillis(1), Duration.ofMillis(5))
+        .maxRetries(2)
+        .build();
+    var attempts = new AtomicInteger();
+    var result = policy.execute(() -> attempts.incrementAndGet() < 3 ? failure(503) :
+        CompletableFuture.completedFuture("ok"), true, false);
+    assertThat(result.join()).isEqualTo("ok");
+    assertThat(attempts.get()).isEqualTo(3);
+  }
+
+  @Test
+  public void doesNotRetryClientErrors() {
+    var policy = ResiliencePolicy.builder()
+        .backoff(Duration.ofMillis(1), Duration.ofMillis(5))
+        .build();
+    var attempts = new AtomicInteger();
+    var result = policy.<String>execute(() -> {
+      attempts.incrementAndGet();
+      return failure(400);
+    }, true, false);
+    try {
+      result.join();
+      fail("expected a failure");
+    } catch (CompletionException e) {
+      assertThat(((ServiceException) e.getCause()).getStatusCode()).isEqualTo(400);
+    }
+    assertThat(attempts.get()).isEqualTo(1);
+  }
+
+  @Test
+  public void circuitOpensAfterConsecutiveFailures() {
+    var policy = ResiliencePolicy.builder()
+        .maxRetries(0)
+        .circuitBreaker(2, Duration.ofMinutes(1))
+        .build();
+    var attempts = new AtomicInteger();
+    for (int i = 0; i < 4; i++) {
+      policy.<String>execute(() -> {
+        attempts.incrementAndGet();
+        return CompletableFuture.failedFuture(new ServiceException("down", new IOException()));
+      }, true, false)
+          .exceptionally(e -> null)
+          .join();
+    }
+    assertThat(attempts.get()).isEqualTo(2);
+    assertThat(policy.getCircuitBreaker()
+        .getState()).isEqualTo(CircuitBreaker.State.OPEN);
+  }
+
+  @Test
+  public void overrunningTheDeadlineCountsAsAFailure() {
+    var policy = ResiliencePolicy.builder()
+        .deadline(Duration.ofMillis(20))
+        .maxRetries(0)
+        .hedgePercentile(1)
+        .circuitBreaker(1, Duration.ofMinutes(1))
+        .build();
+    var hanging = new CompletableFuture<String>();
+    var result = policy.execute(() -> hanging, true, false);
+    try {
+      result.join();
+      fail("expected the deadline to expire");
+    } catch (CompletionException e) {
+      assertThat(e.getCause()).isInstanceOf(ServiceException.class);
+    }
+    assertThat(hanging.isCancelled()).isTrue();
+    assertThat(policy.getCircuitBreaker()
+        .getState()).isEqualTo(CircuitBreaker.State.OPEN);
+  }
+
+  @Test
+  public void fastClientErrorsAreNotHedged() throws InterruptedException {
+    var policy = ResiliencePolicy.builder()
+        .hedgePercentile(0.5)
+        .latencyWindow(16, 2)
+        .build();
+    // two slow successes put the hedging delay at about 300ms
+    CompletableFuture.allOf(policy.execute(() -> slow("warm"), true, true), policy.execute(() -> slow("warm"), true,
+        true))
+        .join();
+    var attempts = new AtomicInteger();
+    long started = System.nanoTime();
+    var result = policy.<String>execute(() -> {
+      attempts.incrementAndGet();
+      return failure(400);
+    }, true, true);
+    try {
+      result.join();
+      fail("expected a failure");
+    } catch (CompletionException e) {
+      assertThat(((ServiceException) e.getCause()).getStatusCode()).isEqualTo(400);
+    }
+    assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started)).isAtMost(150L);
+    // and the hedge isn't sent later either
+    Thread.sleep(400);
+    assertThat(attempts.get()).isEqualTo(1);
+  }
+
+  private static CompletableFuture<String> slow(String value) {
+    return CompletableFuture.supplyAsync(() -> value,
+        CompletableFuture.delayedExecutor(300, TimeUnit.MILLISECONDS));
+  }
+
+  private static <T> CompletableFuture<T> failure(int statusCode) {
+    return CompletableFuture.failedFuture(new ServiceException("HTTP " + statusCode, statusCode));
+  }
+}
@@ -0,0 +1,123 @@
+package foodtruck.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import static com.google.common.truth.Truth.assertThat;
+
+public class SingleFlightTest {
+
+  @Test
+  public void concurrentCallsShareOneResult() throws Exception {
+    var flight = new SingleFlight<String, String>();
+    var calls = new AtomicInteger();
+    var started = new CountDownLatch(1);
+    var release = new CountDownLatch(1);
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<String>> results = new ArrayList<>();
+      results.add(executor.submit(() -> flight.execute("clark and monroe", () -> {
+        calls.incrementAndGet();
+        started.countDown();
+        await(release);
+        return "found";
+      })));
+      started.await();
+      for (int i = 0; i < 3; i++) {
+        results.add(executor.submit(() -> flight.execute("clark and monroe", () -> {
+          calls.incrementAndGet();
+          return "found again";
+        })));
+      }
+      // give the other callers a moment to join the in-flight call
+      Thread.sleep(100);
+      release.countDown();
+      for (Future<String> result : results) {
+        assertThat(result.get()).isEqualTo("found");
+      }
+      assertThat(calls.get()).isEqualTo(1);
+      assertThat(flight.inFlight()).isEqualTo(0);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void asyncFailuresArePropagatedAndForgotten() {
+    var flight = new SingleFlight<String, String>();
+    var failed = flight.executeAsync("key", () -> CompletableFuture.failedFuture(new ServiceException("boom")));
+    assertThat(failed.isCompletedExceptionally()).isTrue();
+    assertThat(flight.executeAsync("key", () -> CompletableFuture.completedFuture("ok"))
+        .join()).isEqualTo("ok");
+  }
+
+  @Test
+  public void cancellingTheLastWaiterCancelsTheCall() {
+    var flight = new SingleFlight<String, String>();
+    var call = new CompletableFuture<String>();
+    var first = flight.executeAsync("key", () -> call);
+    var second = flight.executeAsync("key", () -> CompletableFuture.completedFuture("unused"));
+    first.cancel(true);
+    assertThat(call.isCancelled()).isFalse();
+    second.cancel(true);
+    assertThat(call.isCancelled()).isTrue();
+    assertThat(flight.inFlight()).isEqualTo(0);
+    assertThat(flight.executeAsync("key", () -> CompletableFuture.completedFuture("fresh"))
+        .join()).isEqualTo("fresh");
+  }
+
+  @Test
+  public void cancellingAnAsyncJoinerDoesNotAbandonASyncCall() throws Exception {
+    var flight = new SingleFlight<String, String>();
+    var started = new CountDownLatch(1);
+    var release = new CountDownLatch(1);
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      var owner = executor.submit(() -> flight.execute("key", () -> {
+        started.countDown();
+        await(release);
+        return "found";
+      }));
+      started.await();
+      flight.executeAsync("key", () -> CompletableFuture.completedFuture("unused"))
+          .cancel(true);
+      assertThat(flight.inFlight()).isEqualTo(1);
+      var joiner = flight.executeAsync("key", () -> CompletableFuture.completedFuture("fresh"));
+      release.countDown();
+      assertThat(owner.get()).isEqualTo("found");
+      assertThat(joiner.join()).isEqualTo("found");
+      assertThat(flight.inFlight()).isEqualTo(0);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void errorsAreForgotten() {
+    var flight = new SingleFlight<String, String>();
+    try {
+      flight.execute("key", () -> {
+        throw new AssertionError("boom");
+      });
+    } catch (AssertionError expected) {
+    }
+    assertThat(flight.inFlight()).isEqualTo(0);
+    assertThat(flight.execute("key", () -> "ok")).isEqualTo("ok");
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await();
+    } catch (InterruptedException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}